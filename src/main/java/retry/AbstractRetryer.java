@@ -0,0 +1,106 @@
+package retry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import retry.attempt.Attempt;
+import retry.exception.RetryException;
+import retry.publish.RetryObservable;
+import retry.strategy.BlockStrategy;
+import retry.strategy.StopStrategy;
+import retry.strategy.WaitStrategy;
+
+/**
+ * 各种Retryer共用的停止、等待逻辑
+ */
+abstract class AbstractRetryer {
+
+  private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+
+  /**
+   * 进程内唯一，随通知一起发给订阅者，用来区分共享被观察者的Retryer
+   */
+  protected final int id = NEXT_ID.getAndIncrement();
+
+  protected final RetryObservable retryObservable;
+  protected final StopStrategy stopStrategy;
+  protected final WaitStrategy waitStrategy;
+  protected final BlockStrategy blockStrategy;
+
+  AbstractRetryer(RetryObservable retryObservable, StopStrategy stopStrategy,
+      WaitStrategy waitStrategy, BlockStrategy blockStrategy) {
+    this.retryObservable = retryObservable;
+    this.stopStrategy = stopStrategy;
+    this.waitStrategy = waitStrategy;
+    this.blockStrategy = blockStrategy;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * 阻塞到下次尝试
+   *
+   * @return 实际阻塞的时间(纳秒)
+   * @throws RetryException 停止重试或者等待时被中断
+   */
+  final long awaitNextAttempt(Attempt<?> attempt) throws RetryException {
+    checkStop(attempt);
+    return sleepBeforeNextAttempt(attempt);
+  }
+
+  /**
+   * @throws RetryException 停止重试
+   */
+  final void checkStop(Attempt<?> attempt) throws RetryException {
+    // 结束运行
+    if (stopStrategy.shouldStop(attempt)) {
+      throw retryException(attempt);
+    }
+  }
+
+  /**
+   * 按等待策略阻塞，不检查是否停止重试
+   *
+   * @return 实际阻塞的时间(纳秒)
+   * @throws RetryException 等待时被中断
+   */
+  final long sleepBeforeNextAttempt(Attempt<?> attempt) throws RetryException {
+    try {
+      return blockBeforeNextAttempt(attempt);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw retryException(attempt);
+    }
+  }
+
+  /**
+   * 按等待策略阻塞，被中断时由调用方决定怎么结束
+   *
+   * @return 实际阻塞的时间(纳秒)
+   */
+  final long blockBeforeNextAttempt(Attempt<?> attempt) throws InterruptedException {
+    final long sleepTime = waitStrategy.computeSleepTime(attempt);
+    if (sleepTime <= 0) {
+      return 0L;
+    }
+    final long blockStart = System.nanoTime();
+    blockStrategy.block(sleepTime);
+    return System.nanoTime() - blockStart;
+  }
+
+  /**
+   * 创建并通知停止重试的异常
+   */
+  final RetryException retryException(Attempt<?> attempt) {
+    return notifyRetryException(new RetryException(attempt));
+  }
+
+  final RetryException retryException(String message, Attempt<?> attempt) {
+    return notifyRetryException(new RetryException(message, attempt));
+  }
+
+  private RetryException notifyRetryException(RetryException e) {
+    retryObservable.notifyRetryException(id, e);
+    return e;
+  }
+}
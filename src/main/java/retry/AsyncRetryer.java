@@ -0,0 +1,249 @@
+package retry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import retry.attempt.Attempt;
+import retry.attempt.ExceptionAttempt;
+import retry.attempt.ResultAttempt;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategy;
+import retry.strategy.WaitStrategy;
+
+/**
+ * 异步重试，每次尝试返回CompletionStage，全程不阻塞线程。
+ * 单次超时和重试等待都交给共享的定时器，不使用{@link retry.strategy.BlockStrategy}
+ */
+public class AsyncRetryer<V> extends AbstractRetryer {
+
+  private final ScheduledExecutorService timer;
+  private final Predicate<Attempt<V>> attemptPredicate;
+  /**
+   * 单次尝试超时时间(纳秒)，小于等于0表示不限制
+   */
+  private final long timeout;
+
+  public AsyncRetryer(ScheduledExecutorService timer, long timeout, TimeUnit timeUnit,
+      RetryObservable retryObservable, Predicate<Attempt<V>> attemptPredicate,
+      StopStrategy stopStrategy, WaitStrategy waitStrategy) {
+    super(retryObservable, stopStrategy, waitStrategy, null);
+    if (timer == null) {
+      throw new IllegalArgumentException("timer must not be null");
+    }
+    if (timeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    this.timer = timer;
+    this.timeout = timeUnit.toNanos(timeout);
+    this.attemptPredicate = attemptPredicate;
+  }
+
+  /**
+   * 使用builder的重试条件和策略创建，builder里的阻塞策略不会被使用
+   *
+   * @throws IllegalArgumentException builder设置了caller
+   */
+  public static <V> AsyncRetryer<V> from(RetryerBuilder<V> builder,
+      ScheduledExecutorService timer, long timeout, TimeUnit timeUnit) {
+    if (builder.hasCaller()) {
+      throw new IllegalArgumentException(
+          "caller is not supported, attempts are started by the supplier");
+    }
+    return new AsyncRetryer<>(timer, timeout, timeUnit, builder.theRetryObservable(),
+        builder.theAttemptPredicate(), builder.theStopStrategy(), builder.theWaitStrategy());
+  }
+
+  /**
+   * 取消返回的future会停止后续的重试，正在进行的尝试是{@link Future}时一起取消
+   *
+   * @return 成功时返回结果，不再重试的异常原样返回，停止重试时返回{@link retry.exception.RetryException}
+   */
+  public CompletableFuture<V> call(Supplier<? extends CompletionStage<V>> supplier) {
+    if (supplier == null) {
+      throw new IllegalArgumentException("supplier must not be null");
+    }
+    AsyncCall call = new AsyncCall(supplier);
+    call.result.whenComplete((value, t) -> {
+      if (call.result.isCancelled()) {
+        cancel(call.currentStage);
+      }
+    });
+    call.attempt();
+    return call.result;
+  }
+
+  private static void cancel(CompletionStage<?> stage) {
+    if (stage instanceof Future) {
+      ((Future<?>) stage).cancel(true);
+    }
+  }
+
+  private static Throwable unwrap(Throwable t) {
+    while ((t instanceof CompletionException || t instanceof ExecutionException)
+        && t.getCause() != null) {
+      t = t.getCause();
+    }
+    return t;
+  }
+
+  /**
+   * 一次调用的重试状态
+   */
+  private final class AsyncCall implements Runnable {
+
+    private final Supplier<? extends CompletionStage<V>> supplier;
+    private final CompletableFuture<V> result = new CompletableFuture<>();
+    private final long startTime = System.nanoTime();
+    /**
+     * 已经结束的尝试次数，超时和正常完成只有一个能生效
+     */
+    private final AtomicInteger completedTimes = new AtomicInteger();
+    private volatile int attemptTimes;
+    /**
+     * 正在进行的尝试，取消结果时一起取消
+     */
+    private volatile CompletionStage<V> currentStage;
+    private volatile long callStart;
+    private volatile long sleepStart;
+    private volatile long sleepTime;
+
+    public AsyncCall(Supplier<? extends CompletionStage<V>> supplier) {
+      this.supplier = supplier;
+    }
+
+    @Override
+    public void run() {
+      attempt();
+    }
+
+    private void attempt() {
+      if (result.isDone()) {
+        return;
+      }
+      final long now = System.nanoTime();
+      if (sleepStart != 0L) {
+        sleepTime += now - sleepStart;
+      }
+      final int currentTimes = ++attemptTimes;
+      callStart = now;
+      final CompletionStage<V> stage;
+      try {
+        stage = supplier.get();
+      } catch (Throwable t) {
+        complete(currentTimes, null, t);
+        return;
+      }
+      if (stage == null) {
+        complete(currentTimes, null, new NullPointerException("supplier returned null"));
+        return;
+      }
+      currentStage = stage;
+      if (result.isCancelled()) {
+        // 取消发生在设置currentStage之前
+        cancel(stage);
+        return;
+      }
+      final ScheduledFuture<?> timeoutTask = scheduleTimeout(currentTimes, stage);
+      stage.whenComplete((value, t) -> {
+        if (timeoutTask != null) {
+          timeoutTask.cancel(false);
+        }
+        complete(currentTimes, value, t);
+      });
+    }
+
+    /**
+     * 定时器拒绝时这次调用以{@link RejectedExecutionException}结束，不能不限时地等待
+     */
+    private ScheduledFuture<?> scheduleTimeout(int currentTimes, CompletionStage<V> stage) {
+      if (timeout <= 0) {
+        return null;
+      }
+      try {
+        return timer.schedule(() -> {
+          if (claim(currentTimes)) {
+            // 先取消再处理结果，调用方拿到结果时超时的尝试已经被取消
+            cancel(stage);
+            onCompleted(currentTimes, null, new TimeoutException());
+          }
+        }, timeout, TimeUnit.NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+        if (claim(currentTimes)) {
+          cancel(stage);
+          result.completeExceptionally(e);
+        }
+        return null;
+      }
+    }
+
+    private void complete(int currentTimes, V value, Throwable t) {
+      if (claim(currentTimes)) {
+        onCompleted(currentTimes, value, t);
+      }
+    }
+
+    /**
+     * @return 是否是这次尝试的第一个结果
+     */
+    private boolean claim(int currentTimes) {
+      return completedTimes.compareAndSet(currentTimes - 1, currentTimes);
+    }
+
+    private void onCompleted(int currentTimes, V value, Throwable t) {
+      final long now = System.nanoTime();
+      final Attempt<V> attempt;
+      if (t == null) {
+        attempt = new ResultAttempt<>(value, currentTimes, now - startTime,
+            now - callStart, 0L, sleepTime);
+      } else {
+        attempt = new ExceptionAttempt<>(unwrap(t), currentTimes, now - startTime,
+            now - callStart, 0L, sleepTime);
+      }
+      try {
+        onAttempt(attempt);
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      }
+    }
+
+    private void onAttempt(Attempt<V> attempt) {
+      // 通知
+      retryObservable.notifyAll(id, attempt);
+      if (!attemptPredicate.test(attempt)) {
+        waitStrategy.onComplete(attempt);
+        if (attempt.hasResult()) {
+          result.complete(attempt.getResult());
+        } else {
+          result.completeExceptionally(attempt.getCause());
+        }
+        return;
+      }
+      // 结束运行
+      if (stopStrategy.shouldStop(attempt)) {
+        result.completeExceptionally(retryException(attempt));
+        return;
+      }
+      if (result.isDone()) {
+        return;
+      }
+      // 等待下次运行，不等待时也交给定时器执行，避免同步完成的尝试递归过深
+      long sleep = Math.max(waitStrategy.computeSleepTime(attempt), 0L);
+      sleepStart = System.nanoTime();
+      try {
+        timer.schedule(this, sleep, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException e) {
+        result.completeExceptionally(retryException(attempt));
+      }
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package retry;
+
+import retry.exception.RetryException;
+
+/**
+ * 重试全部失败且没有缓存结果时的兜底
+ */
+@FunctionalInterface
+public interface Fallback<V> {
+
+  /**
+   * @param key 调用时传入的key，可能为null
+   * @param e 重试失败的原因，不想兜底可以直接抛出
+   */
+  V apply(Object key, RetryException e);
+}
@@ -0,0 +1,233 @@
+package retry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 把一个请求分发到多个分片，每个分片在ForkJoinPool中独立重试。
+ * 满足完成条件后中断其余分片的调用和等待，被取消的分片不通知订阅者，也不调用兜底
+ */
+public class FanOutRetryer<V> {
+
+  private final Retryer<V> retryer;
+  private final ForkJoinPool forkJoinPool;
+
+  public FanOutRetryer(Retryer<V> retryer) {
+    this(retryer, ForkJoinPool.commonPool());
+  }
+
+  public FanOutRetryer(Retryer<V> retryer, ForkJoinPool forkJoinPool) {
+    if (retryer == null) {
+      throw new IllegalArgumentException("retryer must not be null");
+    }
+    if (forkJoinPool == null) {
+      throw new IllegalArgumentException("forkJoinPool must not be null");
+    }
+    this.retryer = retryer;
+    this.forkJoinPool = forkJoinPool;
+  }
+
+  /**
+   * 全部成功
+   *
+   * @return 按callables顺序排列的结果
+   */
+  @SuppressWarnings("unchecked")
+  public List<V> allOf(List<? extends Callable<V>> callables)
+      throws ExecutionException, InterruptedException {
+    FanOut fanOut = execute(callables, callables.size());
+    return (List<V>) Collections.unmodifiableList(Arrays.asList(fanOut.results));
+  }
+
+  /**
+   * 最先成功的k个
+   *
+   * @return 按完成顺序排列的结果
+   */
+  public List<V> firstK(List<? extends Callable<V>> callables, int k)
+      throws ExecutionException, InterruptedException {
+    if (k < 1 || k > callables.size()) {
+      throw new IllegalArgumentException("k must be between 1 and callables.size()");
+    }
+    return Collections.unmodifiableList(execute(callables, k).completed);
+  }
+
+  /**
+   * 超过半数成功
+   *
+   * @return 按完成顺序排列的结果
+   */
+  public List<V> quorum(List<? extends Callable<V>> callables)
+      throws ExecutionException, InterruptedException {
+    return firstK(callables, callables.size() / 2 + 1);
+  }
+
+  private FanOut execute(List<? extends Callable<V>> callables, int required)
+      throws ExecutionException, InterruptedException {
+    if (callables == null || callables.isEmpty()) {
+      throw new IllegalArgumentException("callables must not be empty");
+    }
+    final FanOut fanOut = new FanOut(callables.size(), required);
+    final List<Shard> shards = new ArrayList<>(callables.size());
+    for (int i = 0; i < callables.size(); i++) {
+      Callable<V> callable = callables.get(i);
+      if (callable == null) {
+        throw new IllegalArgumentException("callable must not be null");
+      }
+      shards.add(new Shard(i, callable, fanOut));
+    }
+    try {
+      for (Shard shard : shards) {
+        forkJoinPool.execute(shard);
+      }
+      fanOut.await();
+    } finally {
+      for (Shard shard : shards) {
+        shard.cancel();
+      }
+    }
+    if (fanOut.failed) {
+      List<Throwable> failures = fanOut.failures;
+      ExecutionException e = new ExecutionException(failures.size() + " of "
+          + callables.size() + " calls failed, " + required + " successes required",
+          failures.get(0));
+      for (int i = 1; i < failures.size(); i++) {
+        e.addSuppressed(failures.get(i));
+      }
+      throw e;
+    }
+    return fanOut;
+  }
+
+  /**
+   * 一次分发的完成状态
+   */
+  private final class FanOut {
+
+    private final int total;
+    private final int required;
+    private final Object[] results;
+    private final List<V> completed = new ArrayList<>();
+    private final List<Throwable> failures = new ArrayList<>();
+    private boolean done;
+    private boolean failed;
+
+    public FanOut(int total, int required) {
+      this.total = total;
+      this.required = required;
+      this.results = new Object[total];
+    }
+
+    public synchronized boolean isDone() {
+      return done;
+    }
+
+    public synchronized void onSuccess(int index, V result) {
+      if (done) {
+        return;
+      }
+      results[index] = result;
+      completed.add(result);
+      if (completed.size() >= required) {
+        done = true;
+        notifyAll();
+      }
+    }
+
+    public synchronized void onFailure(Throwable t) {
+      if (done) {
+        return;
+      }
+      failures.add(t);
+      if (total - failures.size() < required) {
+        done = true;
+        failed = true;
+        notifyAll();
+      }
+    }
+
+    public synchronized void await() throws InterruptedException {
+      while (!done) {
+        wait();
+      }
+    }
+  }
+
+  /**
+   * 一个分片的重试，取消时中断正在执行的线程
+   */
+  private final class Shard implements Runnable, ForkJoinPool.ManagedBlocker {
+
+    private final int index;
+    private final Callable<V> callable;
+    private final FanOut fanOut;
+    private Thread runner;
+    private boolean cancelled;
+    private boolean finished;
+
+    public Shard(int index, Callable<V> callable, FanOut fanOut) {
+      this.index = index;
+      this.callable = callable;
+      this.fanOut = fanOut;
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (cancelled || fanOut.isDone()) {
+          return;
+        }
+        runner = Thread.currentThread();
+      }
+      try {
+        // 重试会阻塞线程，让ForkJoinPool补充线程
+        ForkJoinPool.managedBlock(this);
+      } catch (InterruptedException e) {
+        fanOut.onFailure(e);
+      } finally {
+        synchronized (this) {
+          runner = null;
+          // 清除取消时设置的中断状态，不影响线程池里的下一个任务
+          Thread.interrupted();
+        }
+      }
+    }
+
+    @Override
+    public boolean block() {
+      try {
+        fanOut.onSuccess(index, retryer.call(callable, this::isCancelled));
+      } catch (CancellationException e) {
+        // 其他分片已经满足完成条件
+      } catch (ExecutionException e) {
+        fanOut.onFailure(e.getCause());
+      } catch (Throwable t) {
+        fanOut.onFailure(t);
+      }
+      finished = true;
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      return finished;
+    }
+
+    public synchronized boolean isCancelled() {
+      return cancelled;
+    }
+
+    public synchronized void cancel() {
+      cancelled = true;
+      if (runner != null) {
+        runner.interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package retry;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import retry.attempt.Attempt;
+import retry.attempt.ExceptionAttempt;
+import retry.attempt.IntResultAttempt;
+import retry.publish.RetryObservable;
+import retry.strategy.BlockStrategy;
+import retry.strategy.StopStrategy;
+import retry.strategy.WaitStrategy;
+
+/**
+ * 返回int的Retryer，在调用线程上直接执行，结果不装箱。
+ * 结果重试条件优先使用{@link IntPredicate}，builder里的retryIfResult仍然会装箱
+ */
+public class IntRetryer extends AbstractRetryer {
+
+  private final Predicate<Attempt<Integer>> attemptPredicate;
+  private final IntPredicate resultPredicate;
+
+  public IntRetryer(RetryObservable retryObservable,
+      Predicate<Attempt<Integer>> attemptPredicate, IntPredicate resultPredicate,
+      StopStrategy stopStrategy, WaitStrategy waitStrategy, BlockStrategy blockStrategy) {
+    super(retryObservable, stopStrategy, waitStrategy, blockStrategy);
+    this.attemptPredicate = attemptPredicate;
+    this.resultPredicate = resultPredicate;
+  }
+
+  /**
+   * 使用builder的异常重试条件和策略创建，调用在当前线程上执行
+   *
+   * @throws IllegalArgumentException builder配置了caller，caller的超时等控制不会生效
+   */
+  public static IntRetryer from(RetryerBuilder<Integer> builder, IntPredicate resultPredicate) {
+    if (resultPredicate == null) {
+      throw new IllegalArgumentException("resultPredicate must not be null");
+    }
+    if (builder.hasCaller()) {
+      throw new IllegalArgumentException("caller is not supported, calls run on the caller thread");
+    }
+    return new IntRetryer(builder.theRetryObservable(), builder.theAttemptPredicate(),
+        resultPredicate, builder.theStopStrategy(), builder.theWaitStrategy(),
+        builder.theBlockStrategy());
+  }
+
+  public int call(IntCallable callable) throws ExecutionException {
+    // 开始执行时间
+    long startTime = System.nanoTime();
+    long sleepTime = 0L;
+    for (int attemptTimes = 1; ; attemptTimes++) {
+      long callStart = System.nanoTime();
+      int result;
+      try {
+        result = callable.call();
+      } catch (Throwable t) {
+        long now = System.nanoTime();
+        Attempt<Integer> attempt = new ExceptionAttempt<>(t, attemptTimes, now - startTime,
+            now - callStart, 0L, sleepTime);
+        retryObservable.notifyAll(id, attempt);
+        // 调用线程被中断，不再重试
+        if (t instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+          throw retryException(attempt);
+        }
+        if (!attemptPredicate.test(attempt)) {
+          waitStrategy.onComplete(attempt);
+          return attempt.get();
+        }
+        sleepTime += awaitNextAttempt(attempt);
+        continue;
+      }
+      long now = System.nanoTime();
+      IntResultAttempt attempt = new IntResultAttempt(result, attemptTimes, now - startTime,
+          now - callStart, 0L, sleepTime);
+      retryObservable.notifyAll(id, attempt);
+      if (!resultPredicate.test(result) && !attemptPredicate.test(attempt)) {
+        waitStrategy.onComplete(attempt);
+        return result;
+      }
+      sleepTime += awaitNextAttempt(attempt);
+    }
+  }
+
+  @FunctionalInterface
+  public interface IntCallable {
+
+    int call() throws Exception;
+  }
+}
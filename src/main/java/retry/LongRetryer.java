@@ -0,0 +1,91 @@
+package retry;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import retry.attempt.Attempt;
+import retry.attempt.ExceptionAttempt;
+import retry.attempt.LongResultAttempt;
+import retry.publish.RetryObservable;
+import retry.strategy.BlockStrategy;
+import retry.strategy.StopStrategy;
+import retry.strategy.WaitStrategy;
+
+/**
+ * 返回long的Retryer，在调用线程上直接执行，结果不装箱。
+ * 结果重试条件优先使用{@link LongPredicate}，builder里的retryIfResult仍然会装箱
+ */
+public class LongRetryer extends AbstractRetryer {
+
+  private final Predicate<Attempt<Long>> attemptPredicate;
+  private final LongPredicate resultPredicate;
+
+  public LongRetryer(RetryObservable retryObservable,
+      Predicate<Attempt<Long>> attemptPredicate, LongPredicate resultPredicate,
+      StopStrategy stopStrategy, WaitStrategy waitStrategy, BlockStrategy blockStrategy) {
+    super(retryObservable, stopStrategy, waitStrategy, blockStrategy);
+    this.attemptPredicate = attemptPredicate;
+    this.resultPredicate = resultPredicate;
+  }
+
+  /**
+   * 使用builder的异常重试条件和策略创建，调用在当前线程上执行
+   *
+   * @throws IllegalArgumentException builder配置了caller，caller的超时等控制不会生效
+   */
+  public static LongRetryer from(RetryerBuilder<Long> builder, LongPredicate resultPredicate) {
+    if (resultPredicate == null) {
+      throw new IllegalArgumentException("resultPredicate must not be null");
+    }
+    if (builder.hasCaller()) {
+      throw new IllegalArgumentException("caller is not supported, calls run on the caller thread");
+    }
+    return new LongRetryer(builder.theRetryObservable(), builder.theAttemptPredicate(),
+        resultPredicate, builder.theStopStrategy(), builder.theWaitStrategy(),
+        builder.theBlockStrategy());
+  }
+
+  public long call(LongCallable callable) throws ExecutionException {
+    // 开始执行时间
+    long startTime = System.nanoTime();
+    long sleepTime = 0L;
+    for (int attemptTimes = 1; ; attemptTimes++) {
+      long callStart = System.nanoTime();
+      long result;
+      try {
+        result = callable.call();
+      } catch (Throwable t) {
+        long now = System.nanoTime();
+        Attempt<Long> attempt = new ExceptionAttempt<>(t, attemptTimes, now - startTime,
+            now - callStart, 0L, sleepTime);
+        retryObservable.notifyAll(id, attempt);
+        // 调用线程被中断，不再重试
+        if (t instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+          throw retryException(attempt);
+        }
+        if (!attemptPredicate.test(attempt)) {
+          waitStrategy.onComplete(attempt);
+          return attempt.get();
+        }
+        sleepTime += awaitNextAttempt(attempt);
+        continue;
+      }
+      long now = System.nanoTime();
+      LongResultAttempt attempt = new LongResultAttempt(result, attemptTimes, now - startTime,
+          now - callStart, 0L, sleepTime);
+      retryObservable.notifyAll(id, attempt);
+      if (!resultPredicate.test(result) && !attemptPredicate.test(attempt)) {
+        waitStrategy.onComplete(attempt);
+        return result;
+      }
+      sleepTime += awaitNextAttempt(attempt);
+    }
+  }
+
+  @FunctionalInterface
+  public interface LongCallable {
+
+    long call() throws Exception;
+  }
+}
@@ -1,76 +1,217 @@
 package retry;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.function.Predicate;
 import retry.attempt.Attempt;
 import retry.attempt.ExceptionAttempt;
 import retry.attempt.ResultAttempt;
+import retry.cache.ResultCache;
 import retry.caller.AttemptCaller;
+import retry.exception.CircuitOpenException;
 import retry.exception.RetryException;
+import retry.isolation.RetryIsolation;
+import retry.isolation.RetryIsolation.KeyState;
 import retry.publish.RetryObservable;
 import retry.strategy.BlockStrategy;
 import retry.strategy.StopStrategy;
 import retry.strategy.WaitStrategy;
 
-public class Retryer<V> {
+public class Retryer<V> extends AbstractRetryer {
+
+  private static final BooleanSupplier NOT_CANCELLED = () -> false;
 
   private final AttemptCaller<V> caller;
-  private final RetryObservable retryObservable;
   private final Predicate<Attempt<V>> attemptPredicate;
-  private final StopStrategy stopStrategy;
-  private final WaitStrategy waitStrategy;
-  private final BlockStrategy blockStrategy;
+  private final ResultCache<V> resultCache;
+  private final Fallback<V> fallback;
+  private final RetryIsolation isolation;
 
   public Retryer(AttemptCaller<V> caller, RetryObservable retryObservable,
       Predicate<Attempt<V>> attemptPredicate, StopStrategy stopStrategy,
       WaitStrategy waitStrategy, BlockStrategy blockStrategy) {
+    this(caller, retryObservable, attemptPredicate, stopStrategy, waitStrategy, blockStrategy,
+        null, null, null);
+  }
+
+  /**
+   * @param resultCache 可以为null，为null时不缓存结果
+   * @param fallback 可以为null，为null时直接抛出{@link RetryException}
+   * @param isolation 可以为null，为null时所有key共用重试额度
+   */
+  public Retryer(AttemptCaller<V> caller, RetryObservable retryObservable,
+      Predicate<Attempt<V>> attemptPredicate, StopStrategy stopStrategy,
+      WaitStrategy waitStrategy, BlockStrategy blockStrategy,
+      ResultCache<V> resultCache, Fallback<V> fallback, RetryIsolation isolation) {
+    super(retryObservable, stopStrategy, waitStrategy, blockStrategy);
     this.caller = caller;
-    this.retryObservable = retryObservable;
     this.attemptPredicate = attemptPredicate;
-    this.stopStrategy = stopStrategy;
-    this.waitStrategy = waitStrategy;
-    this.blockStrategy = blockStrategy;
+    this.resultCache = resultCache;
+    this.fallback = fallback;
+    this.isolation = isolation;
   }
 
   public V call(Callable<V> callable) throws ExecutionException {
+    return call(null, callable);
+  }
+
+  /**
+   * 成功的结果按key缓存，重试全部失败或者key被熔断时先返回缓存的结果，没有缓存再调用兜底。
+   * 配置了{@link RetryIsolation}时每个key单独计算重试额度和熔断状态
+   *
+   * @param key 为null时不读写缓存，也不做隔离
+   */
+  public V call(Object key, Callable<V> callable) throws ExecutionException {
+    final KeyState state = key == null || isolation == null ? null : isolation.state(key);
+    if (state != null && !state.allowCall()) {
+      return recover(key, retryException("Circuit is open for key " + key,
+          new ExceptionAttempt<V>(new CircuitOpenException(key), 0L, 0L)));
+    }
+    final V result;
+    try {
+      result = retry(callable, state, NOT_CANCELLED);
+    } catch (RetryException e) {
+      if (state != null) {
+        state.onFailure();
+      }
+      return recover(key, e);
+    } catch (ExecutionException | RuntimeException | Error e) {
+      // 熔断器的试探调用必须结束，否则key会一直处于半开状态
+      if (state != null) {
+        state.onFailure();
+      }
+      throw e;
+    }
+    if (state != null) {
+      state.onSuccess();
+    }
+    if (key != null && resultCache != null) {
+      resultCache.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * 不使用缓存和隔离。cancelled为true时的中断是调用方主动取消，不算重试失败，
+   * 不通知订阅者也不调用兜底，直接抛出{@link CancellationException}
+   */
+  V call(Callable<V> callable, BooleanSupplier cancelled) throws ExecutionException {
+    try {
+      return retry(callable, null, cancelled);
+    } catch (RetryException e) {
+      return recover(null, e);
+    }
+  }
+
+  private V recover(Object key, RetryException e) {
+    if (key != null && resultCache != null) {
+      V cached = resultCache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    if (fallback != null) {
+      return fallback.apply(key, e);
+    }
+    throw e;
+  }
+
+  private V retry(Callable<V> callable, KeyState state, BooleanSupplier cancelled)
+      throws ExecutionException {
     // 开始执行时间
     long startTime = System.nanoTime();
+    long sleepTime = 0L;
+    // 每次call只创建一次，用来记录任务在线程池中真正开始执行的时间
+    TimedCallable<V> timedCallable = new TimedCallable<>(callable);
     for (int attemptTimes = 1; ; attemptTimes++) {
       Attempt<V> attempt;
+      boolean interrupted = false;
+      long submitTime = System.nanoTime();
+      timedCallable.startTime = submitTime - 1;
       try {
         // 同步获取结果
-        V result = caller.call(callable);
-        attempt = new ResultAttempt<>(result, attemptTimes,
-            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        V result = caller.call(timedCallable);
+        long now = System.nanoTime();
+        long queueDelay = timedCallable.queueDelay(submitTime, now);
+        attempt = new ResultAttempt<>(result, attemptTimes, now - startTime,
+            now - submitTime - queueDelay, queueDelay, sleepTime);
       } catch (Throwable t) {
+        interrupted = t instanceof InterruptedException;
         if (t instanceof ExecutionException) {
           t = t.getCause();
         }
-        attempt = new ExceptionAttempt<>(t, attemptTimes,
-            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        long now = System.nanoTime();
+        long queueDelay = timedCallable.queueDelay(submitTime, now);
+        attempt = new ExceptionAttempt<>(t, attemptTimes, now - startTime,
+            now - submitTime - queueDelay, queueDelay, sleepTime);
+      }
+      if (interrupted) {
+        checkCancelled(cancelled);
+      }
+      if (state != null) {
+        state.onAttempt();
       }
       // 通知
-      retryObservable.notifyAll(attempt);
+      retryObservable.notifyAll(id, attempt);
+      // 等待结果时被中断，不再重试
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+        throw retryException(attempt);
+      }
       if (!attemptPredicate.test(attempt)) {
+        waitStrategy.onComplete(attempt);
         return attempt.get();
       }
-      // 结束运行
-      if (stopStrategy.shouldStop(attempt)) {
-        throw new RetryException(attempt);
+      // 先判断是否停止，停止时不消耗重试额度
+      checkStop(attempt);
+      // 当前key的重试额度用完
+      if (state != null && !state.tryAcquireRetry()) {
+        throw retryException(attempt);
       }
       // 等待下次运行
-      final long sleepTime = waitStrategy.computeSleepTime(attempt);
-      if (sleepTime <= 0) {
-        continue;
-      }
       try {
-        blockStrategy.block(sleepTime);
+        sleepTime += blockBeforeNextAttempt(attempt);
       } catch (InterruptedException e) {
+        checkCancelled(cancelled);
         Thread.currentThread().interrupt();
-        throw new RetryException(attempt);
+        throw retryException(attempt);
       }
     }
   }
+
+  private static void checkCancelled(BooleanSupplier cancelled) {
+    if (cancelled.getAsBoolean()) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("call was cancelled");
+    }
+  }
+
+  private static final class TimedCallable<V> implements Callable<V> {
+
+    private final Callable<V> delegate;
+    /**
+     * 本次尝试开始执行的时间，早于提交时间表示还没有开始执行
+     */
+    private volatile long startTime;
+
+    public TimedCallable(Callable<V> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public V call() throws Exception {
+      startTime = System.nanoTime();
+      return delegate.call();
+    }
+
+    /**
+     * 排队时间，任务还没开始执行时整个等待时间都算作排队
+     */
+    private long queueDelay(long submitTime, long now) {
+      long started = startTime;
+      return started - submitTime < 0 ? now - submitTime : started - submitTime;
+    }
+  }
 }
@@ -16,9 +16,13 @@
 
 package retry;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 import retry.attempt.Attempt;
+import retry.cache.ResultCache;
 import retry.caller.AttemptCaller;
+import retry.isolation.RetryIsolation;
 import retry.publish.RetryObservable;
 import retry.strategy.BlockStrategies;
 import retry.strategy.BlockStrategy;
@@ -37,7 +41,12 @@ public class RetryerBuilder<V> {
   private StopStrategy stopStrategy;
   private WaitStrategy waitStrategy;
   private BlockStrategy blockStrategy;
-  private Predicate<Attempt<V>> attemptPredicate = attempt -> false;
+  private final List<Class<? extends Throwable>> exceptionClasses = new ArrayList<>();
+  private final List<Predicate<Throwable>> exceptionPredicates = new ArrayList<>();
+  private final List<Predicate<V>> resultPredicates = new ArrayList<>();
+  private ResultCache<V> resultCache;
+  private Fallback<V> fallback;
+  private RetryIsolation isolation;
 
   public static <V> RetryerBuilder<V> newBuilder() {
     return new RetryerBuilder<V>();
@@ -94,14 +103,47 @@ public class RetryerBuilder<V> {
   }
 
 
+  public RetryerBuilder<V> withResultCache(ResultCache<V> resultCache)
+      throws IllegalStateException {
+    if (resultCache == null) {
+      throw new IllegalArgumentException("resultCache must not be null");
+    }
+    if (this.resultCache != null) {
+      throw new IllegalStateException("resultCache already set");
+    }
+    this.resultCache = resultCache;
+    return this;
+  }
+
+  public RetryerBuilder<V> withFallback(Fallback<V> fallback) throws IllegalStateException {
+    if (fallback == null) {
+      throw new IllegalArgumentException("fallback must not be null");
+    }
+    if (this.fallback != null) {
+      throw new IllegalStateException("fallback already set");
+    }
+    this.fallback = fallback;
+    return this;
+  }
+
+  public RetryerBuilder<V> withIsolation(RetryIsolation isolation) throws IllegalStateException {
+    if (isolation == null) {
+      throw new IllegalArgumentException("isolation must not be null");
+    }
+    if (this.isolation != null) {
+      throw new IllegalStateException("isolation already set");
+    }
+    this.isolation = isolation;
+    return this;
+  }
+
   public RetryerBuilder<V> retryIfException() {
-    attemptPredicate = attemptPredicate.or(new ExceptionClassPredicate<V>(Exception.class));
+    exceptionClasses.add(Exception.class);
     return this;
   }
 
   public RetryerBuilder<V> retryIfRuntimeException() {
-    attemptPredicate = attemptPredicate.or(
-        new ExceptionClassPredicate<V>(RuntimeException.class));
+    exceptionClasses.add(RuntimeException.class);
     return this;
   }
 
@@ -109,7 +151,7 @@ public class RetryerBuilder<V> {
     if (exceptionClass == null) {
       throw new IllegalArgumentException("exceptionClass must not be null");
     }
-    attemptPredicate = attemptPredicate.or(new ExceptionClassPredicate<>(exceptionClass));
+    exceptionClasses.add(exceptionClass);
     return this;
   }
 
@@ -117,7 +159,7 @@ public class RetryerBuilder<V> {
     if (exceptionPredicate == null) {
       throw new IllegalArgumentException("exceptionPredicate must not be null");
     }
-    attemptPredicate = attemptPredicate.or(new ExceptionPredicate<V>(exceptionPredicate));
+    exceptionPredicates.add(exceptionPredicate);
     return this;
   }
 
@@ -125,68 +167,110 @@ public class RetryerBuilder<V> {
     if (resultPredicate == null) {
       throw new IllegalArgumentException("resultPredicate must not be null");
     }
-    attemptPredicate = attemptPredicate.or(new ResultPredicate<V>(resultPredicate));
+    resultPredicates.add(resultPredicate);
     return this;
   }
 
   public Retryer<V> build() {
-    StopStrategy theStopStrategy = stopStrategy == null ? StopStrategies.neverStop() : stopStrategy;
-    WaitStrategy theWaitStrategy = waitStrategy == null ? WaitStrategies.noWait() : waitStrategy;
-    BlockStrategy theBlockStrategy =
-        blockStrategy == null ? BlockStrategies.threadSleepStrategy() : blockStrategy;
-    return new Retryer<>(attemptCaller, retryObservable, attemptPredicate,
-        theStopStrategy, theWaitStrategy, theBlockStrategy);
+    return new Retryer<>(attemptCaller, retryObservable, theAttemptPredicate(),
+        theStopStrategy(), theWaitStrategy(), theBlockStrategy(), resultCache, fallback,
+        isolation);
   }
 
-  private static final class ExceptionClassPredicate<V> implements Predicate<Attempt<V>> {
-
-    private final Class<? extends Throwable> exceptionClass;
-
-    public ExceptionClassPredicate(Class<? extends Throwable> exceptionClass) {
-      this.exceptionClass = exceptionClass;
-    }
+  /**
+   * 在调用线程上直接执行的Retryer不使用caller，配置了caller说明调用方期望超时等控制
+   */
+  boolean hasCaller() {
+    return attemptCaller != null;
+  }
 
-    @Override
-    public boolean test(Attempt<V> attempt) {
-      if (!attempt.hasException()) {
-        return false;
-      }
-      return exceptionClass.isAssignableFrom(attempt.getCause().getClass());
-    }
+  RetryObservable theRetryObservable() {
+    return retryObservable;
   }
 
-  private static final class ResultPredicate<V> implements Predicate<Attempt<V>> {
+  /**
+   * 把所有重试条件编译成一个判断对象，每次尝试只需要遍历一遍
+   */
+  Predicate<Attempt<V>> theAttemptPredicate() {
+    return new CompiledAttemptPredicate<>(exceptionClasses, exceptionPredicates,
+        resultPredicates);
+  }
 
-    private final Predicate<V> delegate;
+  StopStrategy theStopStrategy() {
+    return stopStrategy == null ? StopStrategies.neverStop() : stopStrategy;
+  }
 
-    public ResultPredicate(Predicate<V> delegate) {
-      this.delegate = delegate;
-    }
+  WaitStrategy theWaitStrategy() {
+    return waitStrategy == null ? WaitStrategies.noWait() : waitStrategy;
+  }
 
-    @Override
-    public boolean test(Attempt<V> attempt) {
-      if (!attempt.hasResult()) {
-        return false;
-      }
-      V result = attempt.getResult();
-      return delegate.test(result);
-    }
+  BlockStrategy theBlockStrategy() {
+    return blockStrategy == null ? BlockStrategies.threadSleepStrategy() : blockStrategy;
   }
 
-  private static final class ExceptionPredicate<V> implements Predicate<Attempt<V>> {
+  /**
+   * 先区分结果和异常，再依次匹配异常类型、异常条件或结果条件，
+   * 被其他类型覆盖的异常类型在编译时去掉
+   */
+  private static final class CompiledAttemptPredicate<V> implements Predicate<Attempt<V>> {
 
-    private final Predicate<Throwable> delegate;
+    private final Class<?>[] exceptionClasses;
+    private final Predicate<Throwable>[] exceptionPredicates;
+    private final Predicate<V>[] resultPredicates;
+
+    @SuppressWarnings("unchecked")
+    public CompiledAttemptPredicate(List<Class<? extends Throwable>> exceptionClasses,
+        List<Predicate<Throwable>> exceptionPredicates, List<Predicate<V>> resultPredicates) {
+      this.exceptionClasses = mergeExceptionClasses(exceptionClasses);
+      this.exceptionPredicates =
+          (Predicate<Throwable>[]) exceptionPredicates.toArray(new Predicate<?>[0]);
+      this.resultPredicates = (Predicate<V>[]) resultPredicates.toArray(new Predicate<?>[0]);
+    }
 
-    public ExceptionPredicate(Predicate<Throwable> delegate) {
-      this.delegate = delegate;
+    private static Class<?>[] mergeExceptionClasses(
+        List<Class<? extends Throwable>> exceptionClasses) {
+      List<Class<?>> merged = new ArrayList<>();
+      for (Class<?> exceptionClass : exceptionClasses) {
+        boolean covered = false;
+        for (Class<?> other : exceptionClasses) {
+          if (other != exceptionClass && other.isAssignableFrom(exceptionClass)) {
+            covered = true;
+            break;
+          }
+        }
+        if (!covered && !merged.contains(exceptionClass)) {
+          merged.add(exceptionClass);
+        }
+      }
+      return merged.toArray(new Class<?>[0]);
     }
 
     @Override
     public boolean test(Attempt<V> attempt) {
-      if (!attempt.hasException()) {
+      if (attempt.hasException()) {
+        Throwable cause = attempt.getCause();
+        for (Class<?> exceptionClass : exceptionClasses) {
+          if (exceptionClass.isInstance(cause)) {
+            return true;
+          }
+        }
+        for (Predicate<Throwable> exceptionPredicate : exceptionPredicates) {
+          if (exceptionPredicate.test(cause)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      if (resultPredicates.length == 0) {
         return false;
       }
-      return delegate.test(attempt.getCause());
+      V result = attempt.getResult();
+      for (Predicate<V> resultPredicate : resultPredicates) {
+        if (resultPredicate.test(result)) {
+          return true;
+        }
+      }
+      return false;
     }
   }
 }
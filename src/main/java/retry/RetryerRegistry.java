@@ -0,0 +1,146 @@
+package retry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import retry.caller.AttemptCaller;
+import retry.caller.FixedTimeAttemptCaller;
+import retry.caller.NoTimeLimitedAttemptCaller;
+import retry.publish.RetryObservable;
+
+/**
+ * 按名称管理Retryer，所有Retryer共享同一个线程池和被观察者，
+ * 同一个模板创建的Retryer共享策略实例和caller。
+ * 查询不加锁，可以在调用路径上直接使用
+ */
+public class RetryerRegistry {
+
+  private final ExecutorService executorService;
+  private final RetryObservable retryObservable;
+  private final ConcurrentMap<String, TemplateHolder> templates = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Registration> retryers = new ConcurrentHashMap<>();
+
+  public RetryerRegistry(ExecutorService executorService) {
+    this(executorService, new RetryObservable());
+  }
+
+  public RetryerRegistry(ExecutorService executorService, RetryObservable retryObservable) {
+    if (executorService == null) {
+      throw new IllegalArgumentException("executorService must not be null");
+    }
+    if (retryObservable == null) {
+      throw new IllegalArgumentException("retryObservable cannot be null");
+    }
+    this.executorService = executorService;
+    this.retryObservable = retryObservable;
+  }
+
+  public RetryerRegistry addTemplate(String name, RetryerTemplate template)
+      throws IllegalStateException {
+    if (name == null) {
+      throw new IllegalArgumentException("name must not be null");
+    }
+    if (template == null) {
+      throw new IllegalArgumentException("template must not be null");
+    }
+    AttemptCaller<Object> caller = template.getTimeout() > 0
+        ? new FixedTimeAttemptCaller<>(executorService, template.getTimeout(),
+        TimeUnit.NANOSECONDS)
+        : new NoTimeLimitedAttemptCaller<>(executorService);
+    if (templates.putIfAbsent(name, new TemplateHolder(template, caller)) != null) {
+      throw new IllegalStateException("template " + name + " already exists");
+    }
+    return this;
+  }
+
+  public <V> Retryer<V> retryer(String name, String templateName) {
+    return retryer(name, templateName, UnaryOperator.identity());
+  }
+
+  /**
+   * 获取Retryer，不存在时用模板创建。
+   * 名称已存在时直接返回已创建的实例，customizer不会再次执行，
+   * 同一个名称的结果类型由调用方保证一致
+   *
+   * @param customizer 在模板之上追加配置，比如结果重试条件，只在创建时生效
+   * @throws IllegalStateException 名称已经用其他模板创建过
+   */
+  @SuppressWarnings("unchecked")
+  public <V> Retryer<V> retryer(String name, String templateName,
+      UnaryOperator<RetryerBuilder<V>> customizer) throws IllegalStateException {
+    if (templateName == null) {
+      throw new IllegalArgumentException("templateName must not be null");
+    }
+    Registration registration = retryers.get(name);
+    if (registration == null) {
+      if (customizer == null) {
+        throw new IllegalArgumentException("customizer must not be null");
+      }
+      final TemplateHolder holder = templates.get(templateName);
+      if (holder == null) {
+        throw new IllegalArgumentException("template " + templateName + " not found");
+      }
+      // 在map外创建，customizer可以访问registry，并发创建时保留先放入的实例
+      Registration created = new Registration(templateName,
+          customizer.apply(holder.<V>toBuilder(retryObservable)).build());
+      registration = retryers.putIfAbsent(name, created);
+      if (registration == null) {
+        registration = created;
+      }
+    }
+    if (!registration.templateName.equals(templateName)) {
+      throw new IllegalStateException("retryer " + name + " already created from template "
+          + registration.templateName + ", not " + templateName);
+    }
+    return (Retryer<V>) registration.retryer;
+  }
+
+  /**
+   * @return 不存在时返回null
+   */
+  @SuppressWarnings("unchecked")
+  public <V> Retryer<V> get(String name) {
+    Registration registration = retryers.get(name);
+    return registration == null ? null : (Retryer<V>) registration.retryer;
+  }
+
+  public RetryObservable getRetryObservable() {
+    return retryObservable;
+  }
+
+  public ExecutorService getExecutorService() {
+    return executorService;
+  }
+
+  private static final class TemplateHolder {
+
+    private final RetryerTemplate template;
+    /**
+     * caller不保存调用状态，可以在不同结果类型的Retryer之间共享
+     */
+    private final AttemptCaller<Object> caller;
+
+    public TemplateHolder(RetryerTemplate template, AttemptCaller<Object> caller) {
+      this.template = template;
+      this.caller = caller;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> RetryerBuilder<V> toBuilder(RetryObservable retryObservable) {
+      return template.toBuilder((AttemptCaller<V>) (AttemptCaller<?>) caller, retryObservable);
+    }
+  }
+
+  private static final class Registration {
+
+    private final String templateName;
+    private final Retryer<?> retryer;
+
+    public Registration(String templateName, Retryer<?> retryer) {
+      this.templateName = templateName;
+      this.retryer = retryer;
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package retry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import retry.caller.AttemptCaller;
+import retry.publish.RetryObservable;
+import retry.strategy.BlockStrategies;
+import retry.strategy.BlockStrategy;
+import retry.strategy.StopStrategies;
+import retry.strategy.StopStrategy;
+import retry.strategy.WaitStrategies;
+import retry.strategy.WaitStrategy;
+
+/**
+ * 不可变的重试配置模板，同一个模板创建的Retryer共享同一组策略实例
+ */
+public final class RetryerTemplate {
+
+  private final StopStrategy stopStrategy;
+  private final WaitStrategy waitStrategy;
+  /**
+   * 有状态的等待策略，每个Retryer创建一个新实例
+   */
+  private final Supplier<WaitStrategy> waitStrategyFactory;
+  private final BlockStrategy blockStrategy;
+  /**
+   * 单次调用超时时间(纳秒)，小于等于0表示不限制
+   */
+  private final long timeout;
+  private final List<Class<? extends Throwable>> retryExceptionTypes;
+
+  private RetryerTemplate(Builder builder) {
+    this.stopStrategy =
+        builder.stopStrategy == null ? StopStrategies.neverStop() : builder.stopStrategy;
+    this.waitStrategy =
+        builder.waitStrategy == null ? WaitStrategies.noWait() : builder.waitStrategy;
+    this.waitStrategyFactory = builder.waitStrategyFactory;
+    this.blockStrategy = builder.blockStrategy == null
+        ? BlockStrategies.threadSleepStrategy() : builder.blockStrategy;
+    this.timeout = builder.timeout;
+    this.retryExceptionTypes = Collections.unmodifiableList(
+        new ArrayList<>(builder.retryExceptionTypes));
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * @return 单次调用超时时间(纳秒)，小于等于0表示不限制
+   */
+  public long getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * 按模板配置生成RetryerBuilder，除了通过工厂配置的等待策略，策略实例不会重新创建
+   */
+  <V> RetryerBuilder<V> toBuilder(AttemptCaller<V> caller, RetryObservable retryObservable) {
+    RetryerBuilder<V> builder = RetryerBuilder.<V>newBuilder()
+        .caller(caller)
+        .retryObservable(retryObservable)
+        .withStopStrategy(stopStrategy)
+        .withWaitStrategy(waitStrategyFactory == null ? waitStrategy : newWaitStrategy())
+        .withBlockStrategy(blockStrategy);
+    for (Class<? extends Throwable> exceptionType : retryExceptionTypes) {
+      builder.retryIfExceptionOfType(exceptionType);
+    }
+    return builder;
+  }
+
+  private WaitStrategy newWaitStrategy() {
+    WaitStrategy strategy = waitStrategyFactory.get();
+    if (strategy == null) {
+      throw new IllegalStateException("waitStrategyFactory returned null");
+    }
+    return strategy;
+  }
+
+  public static final class Builder {
+
+    private StopStrategy stopStrategy;
+    private WaitStrategy waitStrategy;
+    private Supplier<WaitStrategy> waitStrategyFactory;
+    private BlockStrategy blockStrategy;
+    private long timeout;
+    private final List<Class<? extends Throwable>> retryExceptionTypes = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    public Builder withStopStrategy(StopStrategy stopStrategy) {
+      if (stopStrategy == null) {
+        throw new IllegalArgumentException("stopStrategy must not be null");
+      }
+      this.stopStrategy = stopStrategy;
+      return this;
+    }
+
+    /**
+     * 策略实例被所有Retryer共享，有状态的策略需要使用{@link #withWaitStrategyFactory}
+     */
+    public Builder withWaitStrategy(WaitStrategy waitStrategy) {
+      if (waitStrategy == null) {
+        throw new IllegalArgumentException("waitStrategy must not be null");
+      }
+      if (waitStrategy.isStateful()) {
+        throw new IllegalArgumentException(
+            "stateful waitStrategy must not be shared, use withWaitStrategyFactory");
+      }
+      this.waitStrategy = waitStrategy;
+      this.waitStrategyFactory = null;
+      return this;
+    }
+
+    /**
+     * 每个Retryer通过工厂创建自己的等待策略，比如按下游估算恢复时间的策略
+     */
+    public Builder withWaitStrategyFactory(Supplier<WaitStrategy> waitStrategyFactory) {
+      if (waitStrategyFactory == null) {
+        throw new IllegalArgumentException("waitStrategyFactory must not be null");
+      }
+      this.waitStrategyFactory = waitStrategyFactory;
+      this.waitStrategy = null;
+      return this;
+    }
+
+    public Builder withBlockStrategy(BlockStrategy blockStrategy) {
+      if (blockStrategy == null) {
+        throw new IllegalArgumentException("blockStrategy must not be null");
+      }
+      this.blockStrategy = blockStrategy;
+      return this;
+    }
+
+    public Builder withTimeout(long timeout, TimeUnit timeUnit) {
+      if (timeUnit == null) {
+        throw new IllegalArgumentException("timeUnit must not be null");
+      }
+      this.timeout = timeUnit.toNanos(timeout);
+      return this;
+    }
+
+    public Builder retryIfExceptionOfType(Class<? extends Throwable> exceptionClass) {
+      if (exceptionClass == null) {
+        throw new IllegalArgumentException("exceptionClass must not be null");
+      }
+      retryExceptionTypes.add(exceptionClass);
+      return this;
+    }
+
+    public RetryerTemplate build() {
+      return new RetryerTemplate(this);
+    }
+  }
+}
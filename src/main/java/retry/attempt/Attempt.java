@@ -1,6 +1,7 @@
 package retry.attempt;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 一次执行结果，执行成功返回值，执行失败抛出异常
@@ -32,4 +33,32 @@ public interface Attempt<V> {
      * 整个retry过程耗费的时间(毫秒)
      */
     long getDelaySinceFirstAttempt();
+
+    /**
+     * 整个retry过程耗费的时间(纳秒)，默认由毫秒值换算
+     */
+    default long getDelaySinceFirstAttemptNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(getDelaySinceFirstAttempt());
+    }
+
+    /**
+     * 本次尝试执行的时间(纳秒)，不包括在线程池中排队的时间，未记录时为0
+     */
+    default long getCallDuration() {
+        return 0L;
+    }
+
+    /**
+     * 本次尝试在线程池中排队的时间(纳秒)，未记录时为0
+     */
+    default long getQueueDelay() {
+        return 0L;
+    }
+
+    /**
+     * 本次尝试之前累计阻塞等待的时间(纳秒)，未记录时为0
+     */
+    default long getSleepTime() {
+        return 0L;
+    }
 }
@@ -0,0 +1,97 @@
+package retry.attempt;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 保存boolean结果的尝试，{@link #getBooleanResult()}不会装箱
+ */
+public final class BooleanResultAttempt implements Attempt<Boolean> {
+
+    private final boolean result;
+    private final long attemptTimes;
+    private final long delaySinceFirstAttemptNanos;
+    private final long callDuration;
+    private final long queueDelay;
+    private final long sleepTime;
+
+    /**
+     * @param delaySinceFirstAttempt 整个retry过程耗费的时间(毫秒)
+     */
+    public BooleanResultAttempt(boolean result, long attemptTimes, long delaySinceFirstAttempt) {
+        this(result, attemptTimes, TimeUnit.MILLISECONDS.toNanos(delaySinceFirstAttempt),
+                0L, 0L, 0L);
+    }
+
+    /**
+     * 时间参数单位都是纳秒
+     */
+    public BooleanResultAttempt(boolean result, long attemptTimes, long delaySinceFirstAttemptNanos,
+            long callDuration, long queueDelay, long sleepTime) {
+        this.result = result;
+        this.attemptTimes = attemptTimes;
+        this.delaySinceFirstAttemptNanos = delaySinceFirstAttemptNanos;
+        this.callDuration = callDuration;
+        this.queueDelay = queueDelay;
+        this.sleepTime = sleepTime;
+    }
+
+    public boolean getBooleanResult() {
+        return this.result;
+    }
+
+    @Override
+    public boolean hasResult() {
+        return true;
+    }
+
+    @Override
+    public boolean hasException() {
+        return false;
+    }
+
+    @Override
+    public Boolean get() throws ExecutionException {
+        return this.result;
+    }
+
+    @Override
+    public Boolean getResult() throws IllegalStateException {
+        return this.result;
+    }
+
+    @Override
+    public Throwable getCause() throws IllegalStateException {
+        throw new IllegalStateException("this attempt has result");
+    }
+
+    @Override
+    public long getAttemptTimes() {
+        return this.attemptTimes;
+    }
+
+    @Override
+    public long getDelaySinceFirstAttempt() {
+        return TimeUnit.NANOSECONDS.toMillis(this.delaySinceFirstAttemptNanos);
+    }
+
+    @Override
+    public long getDelaySinceFirstAttemptNanos() {
+        return this.delaySinceFirstAttemptNanos;
+    }
+
+    @Override
+    public long getCallDuration() {
+        return this.callDuration;
+    }
+
+    @Override
+    public long getQueueDelay() {
+        return this.queueDelay;
+    }
+
+    @Override
+    public long getSleepTime() {
+        return this.sleepTime;
+    }
+}
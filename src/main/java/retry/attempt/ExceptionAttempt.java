@@ -1,16 +1,35 @@
 package retry.attempt;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public final class ExceptionAttempt<R> implements Attempt<R> {
     private final ExecutionException exception;
     private final long attemptTimes;
-    private final long delaySinceFirstAttempt;
+    private final long delaySinceFirstAttemptNanos;
+    private final long callDuration;
+    private final long queueDelay;
+    private final long sleepTime;
 
+    /**
+     * @param delaySinceFirstAttempt 整个retry过程耗费的时间(毫秒)
+     */
     public ExceptionAttempt(Throwable cause, long attemptTimes, long delaySinceFirstAttempt) {
+        this(cause, attemptTimes, TimeUnit.MILLISECONDS.toNanos(delaySinceFirstAttempt),
+                0L, 0L, 0L);
+    }
+
+    /**
+     * 时间参数单位都是纳秒
+     */
+    public ExceptionAttempt(Throwable cause, long attemptTimes, long delaySinceFirstAttemptNanos,
+            long callDuration, long queueDelay, long sleepTime) {
         this.exception = new ExecutionException(cause);
         this.attemptTimes = attemptTimes;
-        this.delaySinceFirstAttempt = delaySinceFirstAttempt;
+        this.delaySinceFirstAttemptNanos = delaySinceFirstAttemptNanos;
+        this.callDuration = callDuration;
+        this.queueDelay = queueDelay;
+        this.sleepTime = sleepTime;
     }
 
     @Override
@@ -45,6 +64,26 @@ public final class ExceptionAttempt<R> implements Attempt<R> {
 
     @Override
     public long getDelaySinceFirstAttempt() {
-        return this.delaySinceFirstAttempt;
+        return TimeUnit.NANOSECONDS.toMillis(this.delaySinceFirstAttemptNanos);
+    }
+
+    @Override
+    public long getDelaySinceFirstAttemptNanos() {
+        return this.delaySinceFirstAttemptNanos;
+    }
+
+    @Override
+    public long getCallDuration() {
+        return this.callDuration;
+    }
+
+    @Override
+    public long getQueueDelay() {
+        return this.queueDelay;
+    }
+
+    @Override
+    public long getSleepTime() {
+        return this.sleepTime;
     }
 }
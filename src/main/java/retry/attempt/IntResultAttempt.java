@@ -0,0 +1,97 @@
+package retry.attempt;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 保存int结果的尝试，{@link #getIntResult()}不会装箱
+ */
+public final class IntResultAttempt implements Attempt<Integer> {
+
+    private final int result;
+    private final long attemptTimes;
+    private final long delaySinceFirstAttemptNanos;
+    private final long callDuration;
+    private final long queueDelay;
+    private final long sleepTime;
+
+    /**
+     * @param delaySinceFirstAttempt 整个retry过程耗费的时间(毫秒)
+     */
+    public IntResultAttempt(int result, long attemptTimes, long delaySinceFirstAttempt) {
+        this(result, attemptTimes, TimeUnit.MILLISECONDS.toNanos(delaySinceFirstAttempt),
+                0L, 0L, 0L);
+    }
+
+    /**
+     * 时间参数单位都是纳秒
+     */
+    public IntResultAttempt(int result, long attemptTimes, long delaySinceFirstAttemptNanos,
+            long callDuration, long queueDelay, long sleepTime) {
+        this.result = result;
+        this.attemptTimes = attemptTimes;
+        this.delaySinceFirstAttemptNanos = delaySinceFirstAttemptNanos;
+        this.callDuration = callDuration;
+        this.queueDelay = queueDelay;
+        this.sleepTime = sleepTime;
+    }
+
+    public int getIntResult() {
+        return this.result;
+    }
+
+    @Override
+    public boolean hasResult() {
+        return true;
+    }
+
+    @Override
+    public boolean hasException() {
+        return false;
+    }
+
+    @Override
+    public Integer get() throws ExecutionException {
+        return this.result;
+    }
+
+    @Override
+    public Integer getResult() throws IllegalStateException {
+        return this.result;
+    }
+
+    @Override
+    public Throwable getCause() throws IllegalStateException {
+        throw new IllegalStateException("this attempt has result");
+    }
+
+    @Override
+    public long getAttemptTimes() {
+        return this.attemptTimes;
+    }
+
+    @Override
+    public long getDelaySinceFirstAttempt() {
+        return TimeUnit.NANOSECONDS.toMillis(this.delaySinceFirstAttemptNanos);
+    }
+
+    @Override
+    public long getDelaySinceFirstAttemptNanos() {
+        return this.delaySinceFirstAttemptNanos;
+    }
+
+    @Override
+    public long getCallDuration() {
+        return this.callDuration;
+    }
+
+    @Override
+    public long getQueueDelay() {
+        return this.queueDelay;
+    }
+
+    @Override
+    public long getSleepTime() {
+        return this.sleepTime;
+    }
+}
@@ -1,17 +1,36 @@
 package retry.attempt;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public final class ResultAttempt<R> implements Attempt<R> {
 
     private final R result;
     private final long attemptTimes;
-    private final long delaySinceFirstAttempt;
+    private final long delaySinceFirstAttemptNanos;
+    private final long callDuration;
+    private final long queueDelay;
+    private final long sleepTime;
 
+    /**
+     * @param delaySinceFirstAttempt 整个retry过程耗费的时间(毫秒)
+     */
     public ResultAttempt(R result, long attemptTimes, long delaySinceFirstAttempt) {
+        this(result, attemptTimes, TimeUnit.MILLISECONDS.toNanos(delaySinceFirstAttempt),
+                0L, 0L, 0L);
+    }
+
+    /**
+     * 时间参数单位都是纳秒
+     */
+    public ResultAttempt(R result, long attemptTimes, long delaySinceFirstAttemptNanos,
+            long callDuration, long queueDelay, long sleepTime) {
         this.result = result;
         this.attemptTimes = attemptTimes;
-        this.delaySinceFirstAttempt = delaySinceFirstAttempt;
+        this.delaySinceFirstAttemptNanos = delaySinceFirstAttemptNanos;
+        this.callDuration = callDuration;
+        this.queueDelay = queueDelay;
+        this.sleepTime = sleepTime;
     }
 
     @Override
@@ -46,6 +65,26 @@ public final class ResultAttempt<R> implements Attempt<R> {
 
     @Override
     public long getDelaySinceFirstAttempt() {
-        return this.delaySinceFirstAttempt;
+        return TimeUnit.NANOSECONDS.toMillis(this.delaySinceFirstAttemptNanos);
+    }
+
+    @Override
+    public long getDelaySinceFirstAttemptNanos() {
+        return this.delaySinceFirstAttemptNanos;
+    }
+
+    @Override
+    public long getCallDuration() {
+        return this.callDuration;
+    }
+
+    @Override
+    public long getQueueDelay() {
+        return this.queueDelay;
+    }
+
+    @Override
+    public long getSleepTime() {
+        return this.sleepTime;
     }
 }
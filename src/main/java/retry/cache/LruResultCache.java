@@ -0,0 +1,140 @@
+package retry.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 近似按访问顺序淘汰的定长缓存，超过存活时间的结果不再返回。
+ * 读写不加锁，超过上限时由一个线程批量淘汰最久没有访问的结果，
+ * 淘汰期间大小可能短暂超过上限
+ */
+public class LruResultCache<V> implements ResultCache<V> {
+
+  private final int maximumSize;
+  /**
+   * 每次淘汰到这个大小，避免每次写入都淘汰
+   */
+  private final int evictToSize;
+  private final long timeToLive;
+  private final ConcurrentMap<Object, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  public LruResultCache(int maximumSize, long timeToLive, TimeUnit timeUnit) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be > 0");
+    }
+    if (timeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    if (timeToLive <= 0) {
+      throw new IllegalArgumentException("timeToLive must be > 0");
+    }
+    this.maximumSize = maximumSize;
+    this.evictToSize = maximumSize - maximumSize / 8;
+    this.timeToLive = timeUnit.toNanos(timeToLive);
+  }
+
+  @Override
+  public V get(Object key) {
+    if (key == null) {
+      return null;
+    }
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    long now = System.nanoTime();
+    if (entry.isExpired(now)) {
+      entries.remove(key, entry);
+      return null;
+    }
+    entry.accessTime = now;
+    return entry.value;
+  }
+
+  @Override
+  public void put(Object key, V value) {
+    if (key == null || value == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    entries.put(key, new Entry<>(value, now + timeToLive, now));
+    if (entries.size() > maximumSize) {
+      evict();
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * 先清理过期的结果，还超过上限时按访问时间淘汰到{@link #evictToSize}
+   */
+  private void evict() {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      long now = System.nanoTime();
+      List<Candidate<V>> candidates = new ArrayList<>(entries.size());
+      for (Map.Entry<Object, Entry<V>> candidate : entries.entrySet()) {
+        if (candidate.getValue().isExpired(now)) {
+          entries.remove(candidate.getKey(), candidate.getValue());
+        } else {
+          candidates.add(new Candidate<>(candidate.getKey(), candidate.getValue()));
+        }
+      }
+      if (entries.size() <= maximumSize) {
+        return;
+      }
+      int excess = entries.size() - evictToSize;
+      candidates.sort(Comparator.comparingLong(candidate -> candidate.accessTime));
+      for (int i = 0; i < excess && i < candidates.size(); i++) {
+        // 只删除排序时看到的那个结果，期间被重新写入的不删除
+        entries.remove(candidates.get(i).key, candidates.get(i).entry);
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  private static final class Entry<V> {
+
+    private final V value;
+    private final long expireTime;
+    private volatile long accessTime;
+
+    public Entry(V value, long expireTime, long accessTime) {
+      this.value = value;
+      this.expireTime = expireTime;
+      this.accessTime = accessTime;
+    }
+
+    boolean isExpired(long now) {
+      return now - expireTime >= 0;
+    }
+  }
+
+  /**
+   * 淘汰时访问时间的快照，排序期间访问时间还会变
+   */
+  private static final class Candidate<V> {
+
+    private final Object key;
+    private final Entry<V> entry;
+    private final long accessTime;
+
+    public Candidate(Object key, Entry<V> entry) {
+      this.key = key;
+      this.entry = entry;
+      this.accessTime = entry.accessTime;
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package retry.cache;
+
+/**
+ * 保存最近一次成功的结果，重试全部失败时用来兜底
+ */
+public interface ResultCache<V> {
+
+  /**
+   * @return 不存在或者已经过期时返回null
+   */
+  V get(Object key);
+
+  void put(Object key, V value);
+}
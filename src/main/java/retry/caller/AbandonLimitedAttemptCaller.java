@@ -0,0 +1,212 @@
+package retry.caller;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定超时时间，并且限制超时后仍在线程池中运行的任务数。
+ * 不响应中断的任务在超时后会继续占用线程，超过上限时新的尝试会等待或者直接抛出
+ * {@link RejectedExecutionException}，避免线程池被这些任务占满。
+ * 每次尝试开始前占用一个名额，正常结束时释放，超时后仍在运行的任务直到真正结束才释放，
+ * 所以超时后仍在运行的任务数严格不超过上限，同时进行的尝试数也不超过上限。
+ * 每个Retryer使用一个实例
+ */
+public class AbandonLimitedAttemptCaller<V> implements AttemptCaller<V> {
+
+  private static final int QUEUED = 0;
+  private static final int RUNNING = 1;
+  private static final int DONE = 2;
+  private static final int ABANDONED = 3;
+
+  private final ExecutorService executorService;
+  private final long timeout;
+  private final TimeUnit timeUnit;
+  private final int maxAbandoned;
+  /**
+   * 超过上限时最多等待的时间(纳秒)，0表示直接拒绝
+   */
+  private final long maxWait;
+  /**
+   * 正在进行的尝试加上超时后仍在运行的任务
+   */
+  private final AtomicInteger occupiedCount = new AtomicInteger();
+  private final AtomicInteger abandonedCount = new AtomicInteger();
+  private final LongAdder totalAbandonedCount = new LongAdder();
+  private final LongAdder rejectedCount = new LongAdder();
+  private final Object capacityLock = new Object();
+
+  public AbandonLimitedAttemptCaller(ExecutorService executorService,
+      long timeout, TimeUnit timeUnit, int maxAbandoned) {
+    this(executorService, timeout, timeUnit, maxAbandoned, 0L, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param maxAbandoned 名额上限，包括正在进行的尝试和超时后仍在运行的任务
+   */
+  public AbandonLimitedAttemptCaller(ExecutorService executorService,
+      long timeout, TimeUnit timeUnit, int maxAbandoned,
+      long maxWait, TimeUnit maxWaitTimeUnit) {
+    if (executorService == null) {
+      throw new IllegalArgumentException("executorService must not be null");
+    }
+    if (timeUnit == null || maxWaitTimeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    if (maxAbandoned < 1) {
+      throw new IllegalArgumentException("maxAbandoned must be > 0");
+    }
+    if (maxWait < 0) {
+      throw new IllegalArgumentException("maxWait may not be negative");
+    }
+    this.executorService = executorService;
+    this.timeout = timeout;
+    this.timeUnit = timeUnit;
+    this.maxAbandoned = maxAbandoned;
+    this.maxWait = maxWaitTimeUnit.toNanos(maxWait);
+  }
+
+  @Override
+  public V call(Callable<V> callable)
+      throws InterruptedException, TimeoutException, ExecutionException {
+    if (!tryReserve() && !awaitCapacity()) {
+      rejectedCount.increment();
+      throw new RejectedExecutionException(
+          "Attempt limit " + maxAbandoned + " reached, abandoned attempts still running: "
+              + abandonedCount.get());
+    }
+    // 任务继续运行时由任务结束时释放名额
+    boolean release = true;
+    try {
+      final TrackedCallable trackedCallable = new TrackedCallable(callable);
+      final Future<V> future = executorService.submit(trackedCallable);
+      try {
+        // 超时同步获取结果
+        return future.get(timeout, timeUnit);
+      } catch (InterruptedException | TimeoutException e) {
+        future.cancel(true);
+        release = !trackedCallable.abandon();
+        throw e;
+      }
+    } finally {
+      if (release) {
+        release();
+      }
+    }
+  }
+
+  private boolean tryReserve() {
+    for (; ; ) {
+      int current = occupiedCount.get();
+      if (current >= maxAbandoned) {
+        return false;
+      }
+      if (occupiedCount.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * @return 等待期间是否占到了名额
+   */
+  private boolean awaitCapacity() throws InterruptedException {
+    if (maxWait <= 0) {
+      return false;
+    }
+    final long deadline = System.nanoTime() + maxWait;
+    synchronized (capacityLock) {
+      while (!tryReserve()) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(capacityLock, remaining);
+      }
+    }
+    return true;
+  }
+
+  private void release() {
+    occupiedCount.decrementAndGet();
+    if (maxWait > 0) {
+      synchronized (capacityLock) {
+        capacityLock.notifyAll();
+      }
+    }
+  }
+
+  private void onAbandonedFinished() {
+    abandonedCount.decrementAndGet();
+    release();
+  }
+
+  /**
+   * 超时后仍在运行的任务数
+   */
+  public int getAbandonedCount() {
+    return abandonedCount.get();
+  }
+
+  /**
+   * 累计超时后仍在运行的任务数
+   */
+  public long getTotalAbandonedCount() {
+    return totalAbandonedCount.sum();
+  }
+
+  /**
+   * 因为超过上限被拒绝的尝试次数
+   */
+  public long getRejectedCount() {
+    return rejectedCount.sum();
+  }
+
+  private final class TrackedCallable implements Callable<V> {
+
+    private final Callable<V> delegate;
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+    public TrackedCallable(Callable<V> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public V call() throws Exception {
+      if (!state.compareAndSet(QUEUED, RUNNING)) {
+        // 还没开始执行就被放弃
+        return null;
+      }
+      try {
+        return delegate.call();
+      } finally {
+        if (!state.compareAndSet(RUNNING, DONE)) {
+          onAbandonedFinished();
+        }
+      }
+    }
+
+    /**
+     * 只有已经开始执行的任务才会在超时后继续占用名额
+     *
+     * @return 任务是否还在运行，还在运行时由任务结束时释放名额
+     */
+    public boolean abandon() {
+      if (state.compareAndSet(QUEUED, ABANDONED)) {
+        return false;
+      }
+      if (state.compareAndSet(RUNNING, ABANDONED)) {
+        abandonedCount.incrementAndGet();
+        totalAbandonedCount.increment();
+        return true;
+      }
+      return false;
+    }
+  }
+}
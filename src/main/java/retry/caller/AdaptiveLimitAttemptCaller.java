@@ -0,0 +1,116 @@
+package retry.caller;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import retry.exception.LimitExceededException;
+import retry.strategy.LimitStrategy;
+
+/**
+ * 自适应并发上限，超过上限的调用直接抛出{@link LimitExceededException}交给重试逻辑处理。
+ * 每个下游使用一个实例
+ */
+public class AdaptiveLimitAttemptCaller<V> implements AttemptCaller<V> {
+
+  private final AttemptCaller<V> delegate;
+  private final LimitStrategy limitStrategy;
+  private final Predicate<Throwable> dropPredicate;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder rejectedCount = new LongAdder();
+
+  public AdaptiveLimitAttemptCaller(AttemptCaller<V> delegate, LimitStrategy limitStrategy) {
+    this(delegate, limitStrategy, cause -> true);
+  }
+
+  /**
+   * @param dropPredicate 下游抛出的异常是否算作丢弃，丢弃会降低并发上限。
+   * 超时和被拒绝总是算作丢弃
+   */
+  public AdaptiveLimitAttemptCaller(AttemptCaller<V> delegate, LimitStrategy limitStrategy,
+      Predicate<Throwable> dropPredicate) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("delegate must not be null");
+    }
+    if (limitStrategy == null) {
+      throw new IllegalArgumentException("limitStrategy must not be null");
+    }
+    if (dropPredicate == null) {
+      throw new IllegalArgumentException("dropPredicate must not be null");
+    }
+    this.delegate = delegate;
+    this.limitStrategy = limitStrategy;
+    this.dropPredicate = dropPredicate;
+  }
+
+  @Override
+  public V call(Callable<V> callable)
+      throws ExecutionException, TimeoutException, InterruptedException {
+    final int current = tryAcquire();
+    if (current < 0) {
+      rejectedCount.increment();
+      throw new LimitExceededException(limitStrategy.getLimit());
+    }
+    final long startTime = System.nanoTime();
+    boolean dropped = false;
+    boolean sample = true;
+    try {
+      return delegate.call(callable);
+    } catch (TimeoutException | RejectedExecutionException e) {
+      dropped = true;
+      throw e;
+    } catch (ExecutionException e) {
+      // 快速失败的下游同样说明容量不足
+      dropped = dropPredicate.test(e.getCause());
+      throw e;
+    } catch (InterruptedException e) {
+      // 被中断的调用耗时没有参考意义
+      sample = false;
+      throw e;
+    } finally {
+      inFlight.decrementAndGet();
+      if (sample) {
+        limitStrategy.onSample(System.nanoTime() - startTime, current, dropped);
+      }
+    }
+  }
+
+  /**
+   * @return 获取成功后的并发数，超过上限返回-1
+   */
+  private int tryAcquire() {
+    for (; ; ) {
+      int current = inFlight.get();
+      if (current >= limitStrategy.getLimit()) {
+        return -1;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return current + 1;
+      }
+    }
+  }
+
+  /**
+   * 当前并发上限
+   */
+  public int getLimit() {
+    return limitStrategy.getLimit();
+  }
+
+  /**
+   * 当前并发数
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * 超过上限被拒绝的调用次数
+   */
+  public long getRejectedCount() {
+    return rejectedCount.sum();
+  }
+}
@@ -0,0 +1,10 @@
+package retry.caller;
+
+/**
+ * 调用优先级，过载时先推迟和丢弃低优先级的调用
+ */
+public enum Priority {
+  HIGH,
+  NORMAL,
+  LOW
+}
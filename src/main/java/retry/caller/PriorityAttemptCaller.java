@@ -0,0 +1,47 @@
+package retry.caller;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 固定超时时间，按优先级提交到共享的{@link PriorityScheduler}，截止时间为提交时间加超时时间。
+ * 不同优先级的调用使用不同的Retryer和caller
+ */
+public class PriorityAttemptCaller<V> implements AttemptCaller<V> {
+
+  private final PriorityScheduler scheduler;
+  private final Priority priority;
+  private final long timeout;
+
+  public PriorityAttemptCaller(PriorityScheduler scheduler, Priority priority,
+      long timeout, TimeUnit timeUnit) {
+    if (scheduler == null) {
+      throw new IllegalArgumentException("scheduler must not be null");
+    }
+    if (priority == null) {
+      throw new IllegalArgumentException("priority must not be null");
+    }
+    if (timeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    this.scheduler = scheduler;
+    this.priority = priority;
+    this.timeout = timeUnit.toNanos(timeout);
+  }
+
+  @Override
+  public V call(Callable<V> callable)
+      throws InterruptedException, TimeoutException, ExecutionException {
+    final Future<V> future = scheduler.submit(callable, priority, System.nanoTime() + timeout);
+    try {
+      // 超时同步获取结果
+      return future.get(timeout, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException | TimeoutException e) {
+      future.cancel(true);
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,280 @@
+package retry.caller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按优先级调度的线程池，同一优先级内截止时间早的先执行。
+ * 队列有总长度上限，满了之后丢弃比新任务优先级低的任务中截止时间最晚的一个，
+ * 没有更低优先级的任务时拒绝新任务。开始执行时已经超过截止时间的任务直接失败，
+ * 排队时被取消的任务立即移出队列，不再占用队列长度
+ */
+public class PriorityScheduler {
+
+  private static final Priority[] PRIORITIES = Priority.values();
+
+  private final int capacity;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final List<PriorityQueue<PriorityTask<?>>> queues;
+  private final Thread[] workers;
+  private final AtomicLong sequence = new AtomicLong();
+  private final LongAdder[] submittedCounts = newCounters();
+  private final LongAdder[] executedCounts = newCounters();
+  private final LongAdder[] shedCounts = newCounters();
+  private final LongAdder[] rejectedCounts = newCounters();
+  private final LongAdder[] expiredCounts = newCounters();
+  private int queuedCount;
+  private volatile boolean shutdown;
+
+  public PriorityScheduler(int threads, int capacity) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be > 0");
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be > 0");
+    }
+    this.capacity = capacity;
+    this.queues = new ArrayList<>(PRIORITIES.length);
+    for (int i = 0; i < PRIORITIES.length; i++) {
+      queues.add(new PriorityQueue<>());
+    }
+    this.workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      Thread worker = new Thread(this::work, "retry-priority-scheduler-" + i);
+      worker.setDaemon(true);
+      workers[i] = worker;
+      worker.start();
+    }
+  }
+
+  private static LongAdder[] newCounters() {
+    LongAdder[] counters = new LongAdder[PRIORITIES.length];
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = new LongAdder();
+    }
+    return counters;
+  }
+
+  /**
+   * @param deadline 截止时间，{@link System#nanoTime()}的值
+   * @throws RejectedExecutionException 队列已满并且没有更低优先级的任务可以丢弃
+   */
+  public <V> Future<V> submit(Callable<V> callable, Priority priority, long deadline) {
+    if (callable == null) {
+      throw new IllegalArgumentException("callable must not be null");
+    }
+    if (priority == null) {
+      throw new IllegalArgumentException("priority must not be null");
+    }
+    final int level = priority.ordinal();
+    PriorityTask<V> task = new PriorityTask<>(callable, level, deadline,
+        sequence.getAndIncrement());
+    PriorityTask<?> shed = null;
+    lock.lock();
+    try {
+      if (shutdown) {
+        throw new RejectedExecutionException("scheduler has been shut down");
+      }
+      submittedCounts[level].increment();
+      if (queuedCount >= capacity) {
+        shed = pollLatest(level);
+        if (shed == null) {
+          rejectedCounts[level].increment();
+          throw new RejectedExecutionException("priority queue is full");
+        }
+        shedCounts[shed.level].increment();
+        queuedCount--;
+      }
+      queues.get(level).add(task);
+      queuedCount++;
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+    if (shed != null) {
+      shed.reject(new RejectedExecutionException("shed by higher priority task"));
+    }
+    return task;
+  }
+
+  /**
+   * 从比level优先级低的队列中取出截止时间最晚的任务
+   */
+  private PriorityTask<?> pollLatest(int level) {
+    for (int i = queues.size() - 1; i > level; i--) {
+      PriorityQueue<PriorityTask<?>> queue = queues.get(i);
+      if (queue.isEmpty()) {
+        continue;
+      }
+      PriorityTask<?> latest = null;
+      for (PriorityTask<?> task : queue) {
+        if (latest == null || latest.compareTo(task) < 0) {
+          latest = task;
+        }
+      }
+      queue.remove(latest);
+      return latest;
+    }
+    return null;
+  }
+
+  /**
+   * 取消的任务还在排队时移出队列
+   */
+  private void remove(PriorityTask<?> task) {
+    lock.lock();
+    try {
+      if (queues.get(task.level).remove(task)) {
+        queuedCount--;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private PriorityTask<?> take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      for (; ; ) {
+        for (PriorityQueue<PriorityTask<?>> queue : queues) {
+          PriorityTask<?> task = queue.poll();
+          if (task != null) {
+            queuedCount--;
+            return task;
+          }
+        }
+        if (shutdown) {
+          return null;
+        }
+        notEmpty.await();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void work() {
+    try {
+      for (; ; ) {
+        PriorityTask<?> task = take();
+        if (task == null) {
+          return;
+        }
+        if (task.isDone()) {
+          // 取出之后才被取消
+          continue;
+        }
+        if (System.nanoTime() - task.deadline > 0) {
+          expiredCounts[task.level].increment();
+          task.reject(new TimeoutException("deadline exceeded before execution"));
+          continue;
+        }
+        executedCounts[task.level].increment();
+        task.run();
+        // 任务被取消时可能留下中断状态
+        Thread.interrupted();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * 不再接收新任务，已经排队的任务执行完后线程退出
+   */
+  public void shutdown() {
+    lock.lock();
+    try {
+      shutdown = true;
+      notEmpty.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getQueuedCount(Priority priority) {
+    lock.lock();
+    try {
+      return queues.get(priority.ordinal()).size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getSubmittedCount(Priority priority) {
+    return submittedCounts[priority.ordinal()].sum();
+  }
+
+  public long getExecutedCount(Priority priority) {
+    return executedCounts[priority.ordinal()].sum();
+  }
+
+  /**
+   * 排队后被更高优先级任务挤掉的任务数
+   */
+  public long getShedCount(Priority priority) {
+    return shedCounts[priority.ordinal()].sum();
+  }
+
+  /**
+   * 队列已满直接拒绝的任务数
+   */
+  public long getRejectedCount(Priority priority) {
+    return rejectedCounts[priority.ordinal()].sum();
+  }
+
+  /**
+   * 开始执行前已经超过截止时间的任务数
+   */
+  public long getExpiredCount(Priority priority) {
+    return expiredCounts[priority.ordinal()].sum();
+  }
+
+  private final class PriorityTask<V> extends FutureTask<V>
+      implements Comparable<PriorityTask<?>> {
+
+    private final int level;
+    private final long deadline;
+    private final long sequence;
+
+    public PriorityTask(Callable<V> callable, int level, long deadline, long sequence) {
+      super(callable);
+      this.level = level;
+      this.deadline = deadline;
+      this.sequence = sequence;
+    }
+
+    public void reject(Exception e) {
+      setException(e);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        remove(this);
+      }
+      return cancelled;
+    }
+
+    @Override
+    public int compareTo(PriorityTask<?> o) {
+      long diff = deadline - o.deadline;
+      if (diff != 0) {
+        return diff < 0 ? -1 : 1;
+      }
+      return Long.compare(sequence, o.sequence);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package retry.exception;
+
+/**
+ * key对应的熔断器处于打开状态，调用没有执行
+ */
+public final class CircuitOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 6120958794632301274L;
+
+    private final transient Object key;
+
+    public CircuitOpenException(Object key) {
+        super("Circuit is open for key " + key);
+        this.key = key;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,20 @@
+package retry.exception;
+
+/**
+ * 并发数超过上限，调用被快速拒绝
+ */
+public final class LimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = -4533786257186092478L;
+
+    private final int limit;
+
+    public LimitExceededException(int limit) {
+        super("Concurrency limit " + limit + " exceeded");
+        this.limit = limit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -13,7 +13,7 @@ public final class RetryException extends RuntimeException {
     }
 
     public RetryException(String message, Attempt<?> lastFailedAttempt) {
-        super(message, lastFailedAttempt.getCause());
+        super(message, lastFailedAttempt.hasException() ? lastFailedAttempt.getCause() : null);
         this.lastFailedAttempt = lastFailedAttempt;
     }
 
@@ -0,0 +1,292 @@
+package retry.isolation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 同一个Retryer内按key隔离重试：每个key有自己的重试额度、尝试计数和熔断状态，
+ * 一个key的下游故障不会占用其他key的重试额度。
+ * key的数量有上限，超过上限时一次淘汰一批key，优先淘汰没有失败记录并且重试额度已满的key，
+ * 同类key中先淘汰最久没有访问的，熔断中或者额度不足的key尽量保留，避免淘汰后状态被重置
+ */
+public class RetryIsolation {
+
+  /**
+   * 没有失败记录并且额度已满的key排在前面，同类按最后访问时间排序
+   */
+  private static final Comparator<EvictionCandidate> EVICTION_ORDER =
+      Comparator.<EvictionCandidate>comparingInt(candidate -> candidate.idle ? 0 : 1)
+          .thenComparingLong(candidate -> candidate.lastAccessTime);
+
+  private final int maxKeys;
+  private final double retriesPerNano;
+  private final double maxRetryBurst;
+  private final int failureThreshold;
+  private final long openDuration;
+  private final ConcurrentHashMap<Object, KeyState> states = new ConcurrentHashMap<>();
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  private RetryIsolation(Builder builder) {
+    this.maxKeys = builder.maxKeys;
+    this.retriesPerNano = builder.retriesPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.maxRetryBurst = builder.maxRetryBurst;
+    this.failureThreshold = builder.failureThreshold;
+    this.openDuration = builder.openDuration;
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * 获取key的状态，不存在时创建
+   */
+  public KeyState state(Object key) {
+    if (key == null) {
+      throw new IllegalArgumentException("key must not be null");
+    }
+    KeyState state = states.get(key);
+    if (state == null) {
+      state = states.computeIfAbsent(key, k -> new KeyState());
+      if (states.size() > maxKeys) {
+        evict();
+      }
+    }
+    state.lastAccessTime = System.nanoTime();
+    return state;
+  }
+
+  /**
+   * @return 不存在时返回null
+   */
+  public KeyState getState(Object key) {
+    return states.get(key);
+  }
+
+  public int size() {
+    return states.size();
+  }
+
+  /**
+   * 淘汰到上限的90%，分摊扫描的开销，同一时间只有一个线程淘汰
+   */
+  private void evict() {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      int excess = states.size() - (maxKeys - maxKeys / 10);
+      if (excess <= 0) {
+        return;
+      }
+      long now = System.nanoTime();
+      List<EvictionCandidate> candidates = new ArrayList<>(states.size());
+      for (Map.Entry<Object, KeyState> entry : states.entrySet()) {
+        candidates.add(new EvictionCandidate(entry.getKey(), entry.getValue(), now));
+      }
+      candidates.sort(EVICTION_ORDER);
+      for (int i = 0; i < candidates.size() && excess > 0; i++) {
+        EvictionCandidate candidate = candidates.get(i);
+        if (states.remove(candidate.key, candidate.state)) {
+          excess--;
+        }
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  /**
+   * 排序时状态可能还在变化，先取快照
+   */
+  private static final class EvictionCandidate {
+
+    private final Object key;
+    private final KeyState state;
+    private final boolean idle;
+    private final long lastAccessTime;
+
+    public EvictionCandidate(Object key, KeyState state, long now) {
+      this.key = key;
+      this.state = state;
+      this.idle = state.isIdle(now);
+      // 转换成相对时间，避免nanoTime溢出时比较出错
+      this.lastAccessTime = state.lastAccessTime - now;
+    }
+  }
+
+  /**
+   * 一个key的重试状态
+   */
+  public final class KeyState {
+
+    private volatile long lastAccessTime = System.nanoTime();
+    private double retryTokens = maxRetryBurst;
+    private long refillTime = System.nanoTime();
+    private long attemptCount;
+    private long retryCount;
+    private long rejectedRetryCount;
+    private int consecutiveFailures;
+    private volatile long openUntil;
+    /**
+     * 打开时间结束后是否已经放行了一个试探调用
+     */
+    private boolean probing;
+
+    private KeyState() {
+    }
+
+    /**
+     * 熔断器打开时不允许调用，打开时间结束后只放行一个试探调用，
+     * 试探调用结束前其他调用仍然被拒绝。放行后必须调用onSuccess或者onFailure
+     */
+    public boolean allowCall() {
+      long until = openUntil;
+      if (until == 0L) {
+        return true;
+      }
+      if (System.nanoTime() - until < 0) {
+        return false;
+      }
+      synchronized (this) {
+        if (openUntil == 0L) {
+          return true;
+        }
+        if (probing) {
+          return false;
+        }
+        probing = true;
+        return true;
+      }
+    }
+
+    public synchronized void onAttempt() {
+      attemptCount++;
+    }
+
+    /**
+     * 消耗一次重试额度，额度按时间恢复
+     */
+    public synchronized boolean tryAcquireRetry() {
+      long now = System.nanoTime();
+      retryTokens = Math.min(maxRetryBurst, retryTokens + (now - refillTime) * retriesPerNano);
+      refillTime = now;
+      if (retryTokens < 1D) {
+        rejectedRetryCount++;
+        return false;
+      }
+      retryTokens -= 1D;
+      retryCount++;
+      return true;
+    }
+
+    public synchronized void onSuccess() {
+      consecutiveFailures = 0;
+      openUntil = 0L;
+      probing = false;
+    }
+
+    public synchronized void onFailure() {
+      if (++consecutiveFailures >= failureThreshold) {
+        openUntil = System.nanoTime() + openDuration;
+      }
+      probing = false;
+    }
+
+    /**
+     * 打开时间没有结束，或者试探调用还没有结束
+     */
+    public synchronized boolean isOpen() {
+      return openUntil != 0L && (probing || System.nanoTime() - openUntil < 0);
+    }
+
+    /**
+     * 没有失败记录并且重试额度已满，淘汰后重新创建的状态和当前状态相同
+     */
+    private synchronized boolean isIdle(long now) {
+      return consecutiveFailures == 0 && openUntil == 0L
+          && retryTokens + (now - refillTime) * retriesPerNano >= maxRetryBurst;
+    }
+
+    public synchronized long getAttemptCount() {
+      return attemptCount;
+    }
+
+    public synchronized long getRetryCount() {
+      return retryCount;
+    }
+
+    /**
+     * 因为额度不足没有进行的重试次数
+     */
+    public synchronized long getRejectedRetryCount() {
+      return rejectedRetryCount;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+      return consecutiveFailures;
+    }
+  }
+
+  public static final class Builder {
+
+    private int maxKeys = 10000;
+    private double retriesPerSecond = 10D;
+    private double maxRetryBurst = 20D;
+    private int failureThreshold = Integer.MAX_VALUE;
+    private long openDuration;
+
+    private Builder() {
+    }
+
+    public Builder maxKeys(int maxKeys) {
+      if (maxKeys < 1) {
+        throw new IllegalArgumentException("maxKeys must be > 0");
+      }
+      this.maxKeys = maxKeys;
+      return this;
+    }
+
+    /**
+     * 每个key每秒恢复的重试次数和最多累积的重试次数
+     */
+    public Builder retryBudget(double retriesPerSecond, int maxRetryBurst) {
+      if (retriesPerSecond < 0D) {
+        throw new IllegalArgumentException("retriesPerSecond may not be negative");
+      }
+      if (maxRetryBurst < 1) {
+        throw new IllegalArgumentException("maxRetryBurst must be > 0");
+      }
+      this.retriesPerSecond = retriesPerSecond;
+      this.maxRetryBurst = maxRetryBurst;
+      return this;
+    }
+
+    /**
+     * 连续失败failureThreshold次调用后熔断openDuration
+     */
+    public Builder circuitBreaker(int failureThreshold, long openDuration, TimeUnit timeUnit) {
+      if (failureThreshold < 1) {
+        throw new IllegalArgumentException("failureThreshold must be > 0");
+      }
+      if (timeUnit == null) {
+        throw new IllegalArgumentException("timeUnit must not be null");
+      }
+      if (openDuration <= 0) {
+        throw new IllegalArgumentException("openDuration must be > 0");
+      }
+      this.failureThreshold = failureThreshold;
+      this.openDuration = timeUnit.toNanos(openDuration);
+      return this;
+    }
+
+    public RetryIsolation build() {
+      return new RetryIsolation(this);
+    }
+  }
+}
@@ -1,27 +1,45 @@
 package retry.publish;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import retry.attempt.Attempt;
+import retry.exception.RetryException;
 import retry.subscribe.RetrySubscribe;
 
 /**
- * 被观察者
+ * 被观察者，可以被多个Retryer共享，通知时不加锁
  */
 public class RetryObservable {
 
   /**
    * 观察者
    */
-  private final Set<RetrySubscribe> retrySubscribes = new HashSet<>();
+  private final Set<RetrySubscribe> retrySubscribes = new CopyOnWriteArraySet<>();
 
-  public synchronized void addRetrySubscribe(RetrySubscribe retryObserver) {
+  public void addRetrySubscribe(RetrySubscribe retryObserver) {
     retrySubscribes.add(retryObserver);
   }
 
-  public synchronized void notifyAll(Attempt<?> attempt) {
+  public void notifyAll(Attempt<?> attempt) {
+    notifyAll(0, attempt);
+  }
+
+  /**
+   * @param retryerId 产生这次尝试的Retryer，0表示未知
+   */
+  public void notifyAll(int retryerId, Attempt<?> attempt) {
+    for (RetrySubscribe retryObserver : retrySubscribes) {
+      retryObserver.onRetry(retryerId, attempt);
+    }
+  }
+
+  public void notifyRetryException(RetryException e) {
+    notifyRetryException(0, e);
+  }
+
+  public void notifyRetryException(int retryerId, RetryException e) {
     for (RetrySubscribe retryObserver : retrySubscribes) {
-      retryObserver.onRetry(attempt);
+      retryObserver.onRetryException(retryerId, e);
     }
   }
 }
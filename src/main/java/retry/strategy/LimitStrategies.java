@@ -0,0 +1,192 @@
+package retry.strategy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 并发上限策略，每个实例都有自己的状态，不同的下游需要使用不同的实例
+ */
+public final class LimitStrategies {
+
+  private static final int DEFAULT_INITIAL_LIMIT = 20;
+  private static final int DEFAULT_MIN_LIMIT = 1;
+  private static final int DEFAULT_MAX_LIMIT = 200;
+
+  private LimitStrategies() {
+  }
+
+  public static LimitStrategy aimd() {
+    return aimd(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT,
+        0.9D, 5, TimeUnit.SECONDS);
+  }
+
+  public static LimitStrategy aimd(int initialLimit, int minLimit, int maxLimit,
+      double backoffRatio, long timeout, TimeUnit timeUnit) {
+    if (timeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    return new AimdLimitStrategy(initialLimit, minLimit, maxLimit,
+        backoffRatio, timeUnit.toNanos(timeout));
+  }
+
+  public static LimitStrategy vegas() {
+    return vegas(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT);
+  }
+
+  public static LimitStrategy vegas(int initialLimit, int minLimit, int maxLimit) {
+    return new VegasLimitStrategy(initialLimit, minLimit, maxLimit);
+  }
+
+  private static void checkLimits(int initialLimit, int minLimit, int maxLimit) {
+    if (minLimit < 1) {
+      throw new IllegalArgumentException("minLimit must be > 0");
+    }
+    if (maxLimit < minLimit) {
+      throw new IllegalArgumentException("maxLimit must be >= minLimit");
+    }
+    if (initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+    }
+  }
+
+  /**
+   * 加性增、乘性减算法：调用超时或被拒绝时按比例缩小上限，否则在并发打满时上限加一
+   */
+  private static final class AimdLimitStrategy implements LimitStrategy {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long timeout;
+    private final AtomicInteger limit;
+
+    public AimdLimitStrategy(int initialLimit, int minLimit, int maxLimit,
+        double backoffRatio, long timeout) {
+      checkLimits(initialLimit, minLimit, maxLimit);
+      if (backoffRatio <= 0D || backoffRatio >= 1D) {
+        throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+      }
+      if (timeout <= 0) {
+        throw new IllegalArgumentException("timeout must be > 0");
+      }
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+      this.backoffRatio = backoffRatio;
+      this.timeout = timeout;
+      this.limit = new AtomicInteger(initialLimit);
+    }
+
+    @Override
+    public int getLimit() {
+      return limit.get();
+    }
+
+    @Override
+    public void onSample(long rtt, int inFlight, boolean dropped) {
+      for (; ; ) {
+        int current = limit.get();
+        int next;
+        if (dropped || rtt > timeout) {
+          next = Math.max(minLimit, (int) (current * backoffRatio));
+        } else if (inFlight * 2 >= current) {
+          next = Math.min(maxLimit, current + 1);
+        } else {
+          // 并发没有打满，耗时不能说明下游的容量
+          return;
+        }
+        if (next == current || limit.compareAndSet(current, next)) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Vegas算法：以最小耗时作为无负载耗时估算下游排队长度，
+   * 排队少于alpha时增大上限，多于beta时减小上限。
+   * 每隔上限的PROBE_MULTIPLIER倍个样本用当前耗时重置无负载耗时，跟上下游基线耗时的变化
+   */
+  private static final class VegasLimitStrategy implements LimitStrategy {
+
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger limit;
+    /**
+     * 观察到的最小耗时(纳秒)，0表示还没有样本
+     */
+    private final AtomicLong rttNoLoad = new AtomicLong();
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final AtomicLong nextProbe;
+
+    public VegasLimitStrategy(int initialLimit, int minLimit, int maxLimit) {
+      checkLimits(initialLimit, minLimit, maxLimit);
+      this.minLimit = minLimit;
+      this.maxLimit = maxLimit;
+      this.limit = new AtomicInteger(initialLimit);
+      this.nextProbe = new AtomicLong((long) PROBE_MULTIPLIER * initialLimit);
+    }
+
+    @Override
+    public int getLimit() {
+      return limit.get();
+    }
+
+    @Override
+    public void onSample(long rtt, int inFlight, boolean dropped) {
+      if (rtt <= 0) {
+        return;
+      }
+      long count = sampleCount.incrementAndGet();
+      long probe = nextProbe.get();
+      if (count >= probe
+          && nextProbe.compareAndSet(probe, count + (long) PROBE_MULTIPLIER * limit.get())) {
+        // 重置无负载耗时，这个样本只用来重新建立基线
+        rttNoLoad.set(rtt);
+        return;
+      }
+      long noLoad = updateRttNoLoad(rtt);
+      for (; ; ) {
+        int current = limit.get();
+        int log = log10(current);
+        int next;
+        if (dropped) {
+          next = current - log;
+        } else if (inFlight * 2 < current) {
+          return;
+        } else {
+          int queueSize = (int) Math.ceil(current * (1D - (double) noLoad / rtt));
+          if (queueSize <= 3 * log) {
+            next = current + log;
+          } else if (queueSize >= 6 * log) {
+            next = current - log;
+          } else {
+            return;
+          }
+        }
+        next = Math.max(minLimit, Math.min(maxLimit, next));
+        if (next == current || limit.compareAndSet(current, next)) {
+          return;
+        }
+      }
+    }
+
+    private long updateRttNoLoad(long rtt) {
+      for (; ; ) {
+        long current = rttNoLoad.get();
+        if (current != 0 && current <= rtt) {
+          return current;
+        }
+        if (rttNoLoad.compareAndSet(current, rtt)) {
+          return rtt;
+        }
+      }
+    }
+
+    private static int log10(int n) {
+      return Math.max(1, (int) Math.log10(n));
+    }
+  }
+}
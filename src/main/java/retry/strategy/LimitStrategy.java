@@ -0,0 +1,21 @@
+package retry.strategy;
+
+/**
+ * 并发上限策略，根据每次调用的耗时以及是否被丢弃动态调整上限
+ */
+public interface LimitStrategy {
+
+  /**
+   * 当前并发上限
+   */
+  int getLimit();
+
+  /**
+   * 采样一次调用
+   *
+   * @param rtt 调用耗时(纳秒)
+   * @param inFlight 调用开始时的并发数
+   * @param dropped 调用是否超时或者被拒绝
+   */
+  void onSample(long rtt, int inFlight, boolean dropped);
+}
@@ -2,8 +2,9 @@ package retry.strategy;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import retry.attempt.Attempt;
@@ -98,6 +99,20 @@ public final class WaitStrategies {
     return new ExceptionWaitStrategy<T>(exceptionClass, function);
   }
 
+  /**
+   * 根据观察到的恢复时间决定等待时间，第一次重试安排在预计恢复的时间点附近。
+   * 每个实例单独估算，不同的下游需要使用不同的实例，
+   * 在模板中使用时需要通过工厂为每个Retryer创建
+   */
+  public static WaitStrategy recoveryTimeWait(long minimumTime, long maximumTime,
+      TimeUnit timeUnit) {
+    if (timeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    return new RecoveryTimeWaitStrategy(timeUnit.toMillis(minimumTime),
+        timeUnit.toMillis(maximumTime));
+  }
+
   /**
    * 组合
    */
@@ -138,11 +153,10 @@ public final class WaitStrategies {
 
 
   /**
-   * 在最大-最小之间随机算法
+   * 在最大-最小之间随机算法，使用ThreadLocalRandom避免多线程竞争同一个种子
    */
   private static final class RandomWaitStrategy implements WaitStrategy {
 
-    private static final Random RANDOM = new Random();
     private final long minimum;
     private final long maximum;
 
@@ -159,8 +173,7 @@ public final class WaitStrategies {
 
     @Override
     public long computeSleepTime(Attempt<?> failedAttempt) {
-      long t = Math.abs(RANDOM.nextLong()) % (maximum - minimum);
-      return t + minimum;
+      return ThreadLocalRandom.current().nextLong(minimum, maximum);
     }
   }
 
@@ -274,6 +287,89 @@ public final class WaitStrategies {
     }
   }
 
+  /**
+   * 恢复时间算法：失败后最终成功的重试中，从第一次尝试到成功那次尝试开始的时间作为一次恢复时间样本，
+   * 用指数加权平均估算恢复时间。第一次重试等到预计恢复的时间点，之后每次把预计时间翻倍
+   */
+  private static final class RecoveryTimeWaitStrategy implements WaitStrategy {
+
+    /**
+     * 新样本的权重为1/2^WEIGHT_SHIFT
+     */
+    private static final int WEIGHT_SHIFT = 2;
+    /**
+     * 第一次重试就成功时，下游可能在等待期间的任意时刻恢复，
+     * 样本只是恢复时间的上限，按一半计入并提高权重，让估算可以随恢复时间下降
+     */
+    private static final int FIRST_RETRY_WEIGHT_SHIFT = 1;
+
+    private final long minimumWait;
+    private final long maximumWait;
+    /**
+     * 估算的恢复时间(纳秒)，0表示还没有样本
+     */
+    private final AtomicLong recoveryTime = new AtomicLong();
+
+    public RecoveryTimeWaitStrategy(long minimumWait, long maximumWait) {
+      if (minimumWait < 0) {
+        throw new IllegalArgumentException("minimumWait must be >= 0");
+      }
+      if (maximumWait < minimumWait) {
+        throw new IllegalArgumentException("maximumWait must be >= minimumWait");
+      }
+      this.minimumWait = minimumWait;
+      this.maximumWait = maximumWait;
+    }
+
+    @Override
+    public long computeSleepTime(Attempt<?> failedAttempt) {
+      long estimate = recoveryTime.get();
+      if (estimate == 0L) {
+        return minimumWait;
+      }
+      long shift = Math.min(failedAttempt.getAttemptTimes() - 1, 30L);
+      long target = estimate << shift;
+      if (target < 0L) {
+        target = Long.MAX_VALUE;
+      }
+      long remaining = TimeUnit.NANOSECONDS.toMillis(
+          target - failedAttempt.getDelaySinceFirstAttemptNanos());
+      return Math.max(minimumWait, Math.min(maximumWait, remaining));
+    }
+
+    @Override
+    public void onComplete(Attempt<?> lastAttempt) {
+      if (!lastAttempt.hasResult() || lastAttempt.getAttemptTimes() < 2) {
+        return;
+      }
+      long sample = lastAttempt.getDelaySinceFirstAttemptNanos()
+          - lastAttempt.getCallDuration() - lastAttempt.getQueueDelay();
+      if (sample <= 0L) {
+        return;
+      }
+      int weightShift = WEIGHT_SHIFT;
+      if (lastAttempt.getAttemptTimes() == 2) {
+        sample >>= 1;
+        weightShift = FIRST_RETRY_WEIGHT_SHIFT;
+      }
+      for (; ; ) {
+        long current = recoveryTime.get();
+        long next = current == 0L ? sample : current + ((sample - current) >> weightShift);
+        if (next <= 0L) {
+          next = 1L;
+        }
+        if (recoveryTime.compareAndSet(current, next)) {
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean isStateful() {
+      return true;
+    }
+  }
+
   /**
    * 组合策略
    */
@@ -296,6 +392,23 @@ public final class WaitStrategies {
       }
       return waitTime;
     }
+
+    @Override
+    public void onComplete(Attempt<?> lastAttempt) {
+      for (WaitStrategy waitStrategy : waitStrategies) {
+        waitStrategy.onComplete(lastAttempt);
+      }
+    }
+
+    @Override
+    public boolean isStateful() {
+      for (WaitStrategy waitStrategy : waitStrategies) {
+        if (waitStrategy.isStateful()) {
+          return true;
+        }
+      }
+      return false;
+    }
   }
 
 
@@ -9,4 +9,17 @@ public interface WaitStrategy {
    * 阻塞时间ms
    */
   long computeSleepTime(Attempt<?> failedAttempt);
+
+  /**
+   * 不再重试时调用，需要根据重试结果调整等待时间的策略可以覆盖
+   */
+  default void onComplete(Attempt<?> lastAttempt) {
+  }
+
+  /**
+   * 是否保存了针对某个下游的状态，有状态的策略不能在多个下游之间共享
+   */
+  default boolean isStateful() {
+    return false;
+  }
 }
@@ -0,0 +1,198 @@
+package retry.subscribe;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import retry.attempt.Attempt;
+import retry.exception.RetryException;
+
+/**
+ * 飞行记录器，把每次尝试写成定长二进制记录保存到堆外环形缓冲区，写入时不分配对象。
+ * 缓冲区写满后覆盖最早的记录，可以随时或者在停止重试时导出到文件。
+ * 导出时不阻塞写入，正在写入的记录可能不完整。
+ * 作为订阅者使用时，retryer id取自通知，多个Retryer共享被观察者时只需要订阅一次
+ *
+ * <p>记录格式(48字节)：时间戳毫秒(long)、retryer id(int)、第几次尝试(int)、
+ * 异常类型id(int，0表示没有异常)、结果(byte，0成功，1异常)、3字节填充、
+ * 执行时间纳秒(long)、累计阻塞时间纳秒(long)、排队时间纳秒(long)
+ *
+ * <p>导出格式：魔数(int)、版本(int)、记录长度(int)、记录数(int)、记录，
+ * 然后是异常类型表：类型数(int)，每个类型的id(int)和类名(UTF)
+ */
+public class FlightRecorder implements RetrySubscribe {
+
+  public static final int MAGIC = 0x52545259;
+  public static final int VERSION = 1;
+  public static final int RECORD_SIZE = 48;
+  public static final byte OUTCOME_RESULT = 0;
+  public static final byte OUTCOME_EXCEPTION = 1;
+
+  private final ByteBuffer buffer;
+  private final long mask;
+  private final AtomicLong sequence = new AtomicLong();
+  private final Map<Class<?>, Integer> exceptionClassIds = new ConcurrentHashMap<>();
+  private final AtomicInteger nextExceptionClassId = new AtomicInteger(1);
+
+  private final Path dumpPath;
+  private final long minInterval;
+  private final Executor executor;
+  private final AtomicBoolean dumping = new AtomicBoolean();
+  private volatile long lastDumpTime;
+  private volatile boolean dumped;
+
+  /**
+   * @param capacity 最多保存的记录数，会向上取整到2的幂
+   */
+  public FlightRecorder(int capacity) {
+    this(capacity, null, 0L, TimeUnit.NANOSECONDS, null);
+  }
+
+  /**
+   * 停止重试时在executor中导出到文件，不阻塞抛出异常的线程，
+   * 两次导出至少间隔minInterval，避免重试风暴时反复写文件
+   *
+   * @param dumpPath 为null时不导出
+   */
+  public FlightRecorder(int capacity, Path dumpPath, long minInterval, TimeUnit timeUnit,
+      Executor executor) {
+    if (capacity < 1 || capacity > (1 << 24)) {
+      throw new IllegalArgumentException("capacity must be between 1 and 2^24");
+    }
+    if (timeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    if (dumpPath != null && executor == null) {
+      throw new IllegalArgumentException("executor must not be null");
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.buffer = ByteBuffer.allocateDirect(size * RECORD_SIZE);
+    this.mask = size - 1;
+    this.dumpPath = dumpPath;
+    this.minInterval = timeUnit.toNanos(minInterval);
+    this.executor = executor;
+  }
+
+  @Override
+  public <V> void onRetry(Attempt<V> attempt) {
+    record(0, attempt);
+  }
+
+  @Override
+  public <V> void onRetry(int retryerId, Attempt<V> attempt) {
+    record(retryerId, attempt);
+  }
+
+  @Override
+  public void onRetryException(RetryException e) {
+    if (dumpPath == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    if (dumped && now - lastDumpTime < minInterval) {
+      return;
+    }
+    // 同一时间只有一个导出任务
+    if (!dumping.compareAndSet(false, true)) {
+      return;
+    }
+    lastDumpTime = now;
+    dumped = true;
+    try {
+      executor.execute(this::dumpQuietly);
+    } catch (RejectedExecutionException ignored) {
+      dumping.set(false);
+    }
+  }
+
+  private void dumpQuietly() {
+    try {
+      dump(dumpPath);
+    } catch (IOException ignored) {
+      // 导出失败不能影响重试结果
+    } finally {
+      dumping.set(false);
+    }
+  }
+
+  public void record(int retryerId, Attempt<?> attempt) {
+    int exceptionClassId = 0;
+    byte outcome = OUTCOME_RESULT;
+    if (attempt.hasException()) {
+      outcome = OUTCOME_EXCEPTION;
+      exceptionClassId = exceptionClassId(attempt.getCause().getClass());
+    }
+    final int offset = (int) ((sequence.getAndIncrement() & mask) * RECORD_SIZE);
+    // 绝对位置读写不修改buffer的状态，不同线程写不同的位置
+    buffer.putLong(offset, System.currentTimeMillis());
+    buffer.putInt(offset + 8, retryerId);
+    buffer.putInt(offset + 12, (int) attempt.getAttemptTimes());
+    buffer.putInt(offset + 16, exceptionClassId);
+    buffer.put(offset + 20, outcome);
+    buffer.putLong(offset + 24, attempt.getCallDuration());
+    buffer.putLong(offset + 32, attempt.getSleepTime());
+    buffer.putLong(offset + 40, attempt.getQueueDelay());
+  }
+
+  private int exceptionClassId(Class<?> exceptionClass) {
+    Integer id = exceptionClassIds.get(exceptionClass);
+    if (id != null) {
+      return id;
+    }
+    return exceptionClassIds.computeIfAbsent(exceptionClass,
+        key -> nextExceptionClassId.getAndIncrement());
+  }
+
+  /**
+   * 已经写入过的记录数，包括被覆盖的记录
+   */
+  public long getRecordedCount() {
+    return sequence.get();
+  }
+
+  public void dump(Path path) throws IOException {
+    try (OutputStream out = Files.newOutputStream(path)) {
+      dump(out);
+    }
+  }
+
+  /**
+   * 按写入顺序导出缓冲区中的记录
+   */
+  public void dump(OutputStream outputStream) throws IOException {
+    final long end = sequence.get();
+    final long start = Math.max(0L, end - (mask + 1));
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(RECORD_SIZE);
+    out.writeInt((int) (end - start));
+    byte[] record = new byte[RECORD_SIZE];
+    ByteBuffer view = buffer.duplicate();
+    for (long seq = start; seq < end; seq++) {
+      view.position((int) ((seq & mask) * RECORD_SIZE));
+      view.get(record);
+      out.write(record);
+    }
+    out.writeInt(exceptionClassIds.size());
+    for (Map.Entry<Class<?>, Integer> entry : exceptionClassIds.entrySet()) {
+      out.writeInt(entry.getValue());
+      out.writeUTF(entry.getKey().getName());
+    }
+    out.flush();
+  }
+}
@@ -1,12 +1,31 @@
 package retry.subscribe;
 
 import retry.attempt.Attempt;
+import retry.exception.RetryException;
 
 /**
- * 重试订阅者，执行完一次调用就会调用onRetry方法
+ * 重试订阅者，执行完一次调用就会调用onRetry方法，
+ * 本次尝试的执行、排队和累计阻塞时间都可以从attempt中获取
  */
 @FunctionalInterface
 public interface RetrySubscribe {
 
     <V> void onRetry(Attempt<V> attempt);
+
+    /**
+     * 带上产生这次尝试的Retryer id，多个Retryer共享被观察者时用来区分来源，0表示未知
+     */
+    default <V> void onRetry(int retryerId, Attempt<V> attempt) {
+        onRetry(attempt);
+    }
+
+    /**
+     * 停止重试时调用，之后会抛出这个异常
+     */
+    default void onRetryException(RetryException e) {
+    }
+
+    default void onRetryException(int retryerId, RetryException e) {
+        onRetryException(e);
+    }
 }
@@ -0,0 +1,156 @@
+package retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import retry.caller.NoTimeLimitedAttemptCaller;
+import retry.exception.RetryException;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+import retry.strategy.WaitStrategies;
+
+public class AsyncRetryerTest {
+
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    timer.shutdownNow();
+  }
+
+  @Test
+  public void timedOutAttemptsAreCancelledAndRetried() throws Exception {
+    final List<CompletableFuture<String>> stages = new CopyOnWriteArrayList<>();
+    AsyncRetryer<String> retryer = retryer(3, 20);
+    CompletableFuture<String> result = retryer.call(() -> {
+      attempts.incrementAndGet();
+      CompletableFuture<String> stage = new CompletableFuture<>();
+      stages.add(stage);
+      return stage;
+    });
+    try {
+      result.get(5, TimeUnit.SECONDS);
+      fail("expected RetryException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RetryException);
+      RetryException retryException = (RetryException) e.getCause();
+      assertTrue(retryException.getLastFailedAttempt().getCause() instanceof TimeoutException);
+      assertEquals(3L, retryException.getLastFailedAttempt().getAttemptTimes());
+    }
+    assertEquals(3, attempts.get());
+    for (CompletableFuture<String> stage : stages) {
+      assertTrue(stage.isCancelled());
+    }
+  }
+
+  @Test
+  public void lateResultAfterTimeoutIsIgnored() throws Exception {
+    final List<CompletableFuture<String>> stages = new CopyOnWriteArrayList<>();
+    AsyncRetryer<String> retryer = retryer(2, 20);
+    CompletableFuture<String> result = retryer.call(() -> {
+      CompletableFuture<String> stage = new CompletableFuture<>();
+      if (attempts.incrementAndGet() == 1) {
+        // 第一次尝试超时之后才完成，不能影响第二次尝试
+        timer.schedule(() -> stage.obtrudeValue("late"), 50, TimeUnit.MILLISECONDS);
+      } else {
+        stage.complete("ok");
+      }
+      stages.add(stage);
+      return stage;
+    });
+    assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  public void retriesFailedStageUntilSuccess() throws Exception {
+    AsyncRetryer<String> retryer = retryer(5, 0);
+    CompletableFuture<String> result = retryer.call(() -> {
+      CompletableFuture<String> stage = new CompletableFuture<>();
+      if (attempts.incrementAndGet() < 3) {
+        stage.completeExceptionally(new IllegalStateException("down"));
+      } else {
+        stage.complete("ok");
+      }
+      return stage;
+    });
+    assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  public void cancellingResultStopsRetries() throws Exception {
+    AsyncRetryer<String> retryer = AsyncRetryer.from(RetryerBuilder.<String>newBuilder()
+        .retryObservable(new RetryObservable())
+        .retryIfException()
+        .withWaitStrategy(WaitStrategies.fixedWait(20, TimeUnit.MILLISECONDS)), timer, 0,
+        TimeUnit.MILLISECONDS);
+    CompletableFuture<String> result = retryer.call(() -> {
+      attempts.incrementAndGet();
+      CompletableFuture<String> stage = new CompletableFuture<>();
+      stage.completeExceptionally(new IllegalStateException("down"));
+      return stage;
+    });
+    result.cancel(false);
+    int attemptsAtCancel = attempts.get();
+    TimeUnit.MILLISECONDS.sleep(100);
+    assertEquals(attemptsAtCancel, attempts.get());
+  }
+
+  @Test
+  public void cancellingResultCancelsRunningStage() throws Exception {
+    final CompletableFuture<String> stage = new CompletableFuture<>();
+    CompletableFuture<String> result = retryer(3, 0).call(() -> stage);
+    result.cancel(true);
+    assertTrue(stage.isCancelled());
+  }
+
+  @Test
+  public void rejectedTimeoutFailsCall() throws Exception {
+    ScheduledExecutorService stoppedTimer = Executors.newSingleThreadScheduledExecutor();
+    stoppedTimer.shutdown();
+    final CompletableFuture<String> stage = new CompletableFuture<>();
+    AsyncRetryer<String> retryer = AsyncRetryer.from(RetryerBuilder.<String>newBuilder()
+            .retryObservable(new RetryObservable())
+            .retryIfException(),
+        stoppedTimer, 20, TimeUnit.MILLISECONDS);
+    CompletableFuture<String> result = retryer.call(() -> stage);
+    try {
+      result.get(5, TimeUnit.SECONDS);
+      fail("expected RejectedExecutionException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+    assertTrue(stage.isCancelled());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsBuilderCaller() {
+    AsyncRetryer.from(RetryerBuilder.<String>newBuilder()
+            .caller(new NoTimeLimitedAttemptCaller<>(timer))
+            .retryObservable(new RetryObservable()),
+        timer, 0, TimeUnit.MILLISECONDS);
+  }
+
+  private AsyncRetryer<String> retryer(int maxAttempts, long timeoutMillis) {
+    return AsyncRetryer.from(RetryerBuilder.<String>newBuilder()
+            .retryObservable(new RetryObservable())
+            .retryIfException()
+            .withStopStrategy(StopStrategies.stopAfterAttempt(maxAttempts)),
+        timer, timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+}
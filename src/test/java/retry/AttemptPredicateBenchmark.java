@@ -0,0 +1,98 @@
+package retry;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import retry.attempt.Attempt;
+import retry.attempt.ExceptionAttempt;
+import retry.attempt.ResultAttempt;
+
+/**
+ * 对比逐条Predicate.or拼接的重试条件和编译后的重试条件，
+ * 运行方式：
+ * <pre>
+ * mvn -q test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main AttemptPredicateBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttemptPredicateBenchmark {
+
+  @Param({"1", "5", "20"})
+  private int rules;
+
+  private Predicate<Attempt<String>> chain;
+  private Predicate<Attempt<String>> compiled;
+  private List<Attempt<String>> attempts;
+
+  @Setup
+  public void setUp() {
+    Predicate<Attempt<String>> chain = attempt -> false;
+    RetryerBuilder<String> builder = RetryerBuilder.newBuilder();
+    for (int i = 0; i < rules; i++) {
+      final String value = "retry-" + i;
+      switch (i % 3) {
+        case 0:
+          Class<? extends Throwable> exceptionClass =
+              i % 2 == 0 ? TimeoutException.class : IOException.class;
+          chain = chain.or(attempt -> attempt.hasException()
+              && exceptionClass.isAssignableFrom(attempt.getCause().getClass()));
+          builder.retryIfExceptionOfType(exceptionClass);
+          break;
+        case 1:
+          Predicate<Throwable> exceptionPredicate = e -> value.equals(e.getMessage());
+          chain = chain.or(attempt -> attempt.hasException()
+              && exceptionPredicate.test(attempt.getCause()));
+          builder.retryIfException(exceptionPredicate);
+          break;
+        default:
+          Predicate<String> resultPredicate = value::equals;
+          chain = chain.or(attempt -> attempt.hasResult()
+              && resultPredicate.test(attempt.getResult()));
+          builder.retryIfResult(resultPredicate);
+          break;
+      }
+    }
+    this.chain = chain;
+    this.compiled = builder.theAttemptPredicate();
+    this.attempts = Arrays.asList(
+        new ResultAttempt<>("ok", 1L, 0L),
+        new ExceptionAttempt<>(new IllegalStateException("failed"), 1L, 0L),
+        new ResultAttempt<>("done", 2L, 0L),
+        new ExceptionAttempt<>(new TimeoutException(), 2L, 0L));
+  }
+
+  @Benchmark
+  public void chain(Blackhole blackhole) {
+    for (Attempt<String> attempt : attempts) {
+      blackhole.consume(chain.test(attempt));
+    }
+  }
+
+  @Benchmark
+  public void compiled(Blackhole blackhole) {
+    for (Attempt<String> attempt : attempts) {
+      blackhole.consume(compiled.test(attempt));
+    }
+  }
+}
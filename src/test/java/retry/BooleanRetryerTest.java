@@ -0,0 +1,76 @@
+package retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import retry.attempt.BooleanResultAttempt;
+import retry.exception.RetryException;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+
+public class BooleanRetryerTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  public void retriesUntilTrue() throws Exception {
+    BooleanRetryer retryer = BooleanRetryer.from(builder(5), result -> !result);
+    assertTrue(retryer.call(() -> calls.incrementAndGet() >= 3));
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void retriesConfiguredException() throws Exception {
+    BooleanRetryer retryer = BooleanRetryer.from(builder(5), result -> false);
+    assertFalse(retryer.call(() -> {
+      if (calls.incrementAndGet() < 2) {
+        throw new IllegalStateException("down");
+      }
+      return false;
+    }));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void stopsAfterLastAttempt() throws Exception {
+    BooleanRetryer retryer = BooleanRetryer.from(builder(2), result -> !result);
+    try {
+      retryer.call(() -> calls.incrementAndGet() > 5);
+      fail("expected RetryException");
+    } catch (RetryException e) {
+      assertFalse(((BooleanResultAttempt) e.getLastFailedAttempt()).getBooleanResult());
+    }
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void interruptedCallStopsRetrying() throws Exception {
+    BooleanRetryer retryer = BooleanRetryer.from(builder(5), result -> false);
+    try {
+      retryer.call(() -> {
+        calls.incrementAndGet();
+        throw new InterruptedException();
+      });
+      fail("expected RetryException");
+    } catch (RetryException e) {
+      assertTrue(Thread.interrupted());
+    }
+    assertEquals(1, calls.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsBuilderWithCaller() {
+    BooleanRetryer.from(builder(3).caller(callable -> true), result -> false);
+  }
+
+  private static RetryerBuilder<Boolean> builder(int attempts) {
+    return RetryerBuilder.<Boolean>newBuilder()
+        .retryObservable(new RetryObservable())
+        .retryIfException()
+        .withStopStrategy(StopStrategies.stopAfterAttempt(attempts));
+  }
+}
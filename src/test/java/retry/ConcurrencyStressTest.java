@@ -0,0 +1,252 @@
+package retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.After;
+import org.junit.Test;
+import retry.attempt.Attempt;
+import retry.attempt.ResultAttempt;
+import retry.caller.FixedTimeAttemptCaller;
+import retry.caller.NoTimeLimitedAttemptCaller;
+import retry.exception.RetryException;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+import retry.strategy.WaitStrategies;
+import retry.strategy.WaitStrategy;
+import retry.subscribe.RetrySubscribe;
+
+/**
+ * 在1到64个线程下反复执行共享组件，任何一次不变量被破坏都会失败。
+ * 每个场景输出各线程数下的吞吐量曲线
+ */
+public class ConcurrencyStressTest {
+
+  private static final int[] THREADS = {1, 4, 16, 64};
+  private static final long DURATION = TimeUnit.MILLISECONDS.toNanos(200);
+  /**
+   * 最多线程数下的吞吐量不能低于单线程的几分之一，只用来发现严重的锁竞争
+   */
+  private static final int MAX_SLOWDOWN = 10;
+
+  private final Attempt<String> attempt = new ResultAttempt<>("ok", 1L, 0L);
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  /**
+   * 通知和订阅并发进行：通知结束之后才订阅的观察者不能收到这次通知，
+   * 订阅返回之后才开始的通知必须被收到
+   */
+  @Test
+  public void subscribersAddedDuringNotificationSeeConsistentView() throws Exception {
+    final double[] throughput = new double[THREADS.length];
+    for (int i = 0; i < THREADS.length; i++) {
+      final RetryObservable observable = new RetryObservable();
+      final LongAdder started = new LongAdder();
+      final LongAdder completed = new LongAdder();
+      final CountingSubscribe first = new CountingSubscribe(0L, 0L);
+      final List<CountingSubscribe> subscribes = new CopyOnWriteArrayList<>();
+      observable.addRetrySubscribe(first);
+      throughput[i] = stress(THREADS[i], () -> {
+        if (ThreadLocalRandom.current().nextInt(256) == 0) {
+          long completedBefore = completed.sum();
+          CountingSubscribe subscribe = new CountingSubscribe(completedBefore, 0L);
+          observable.addRetrySubscribe(subscribe);
+          subscribe.startedAfter = started.sum();
+          subscribes.add(subscribe);
+        }
+        started.increment();
+        observable.notifyAll(attempt);
+        completed.increment();
+      });
+      long total = completed.sum();
+      assertEquals(total, first.count.sum());
+      for (CountingSubscribe subscribe : subscribes) {
+        long count = subscribe.count.sum();
+        assertTrue(count + " < " + (total - subscribe.startedAfter),
+            count >= total - subscribe.startedAfter);
+        assertTrue(count + " > " + (total - subscribe.completedBefore),
+            count <= total - subscribe.completedBefore);
+      }
+    }
+    report("RetryObservable.notifyAll", throughput);
+    assertScales(throughput);
+  }
+
+  @Test
+  public void randomWaitStaysInRange() throws Exception {
+    final WaitStrategy waitStrategy = WaitStrategies.randomWait(
+        10, TimeUnit.MILLISECONDS, 20, TimeUnit.MILLISECONDS);
+    final double[] throughput = new double[THREADS.length];
+    for (int i = 0; i < THREADS.length; i++) {
+      throughput[i] = stress(THREADS[i], () -> {
+        long sleepTime = waitStrategy.computeSleepTime(attempt);
+        if (sleepTime < 10 || sleepTime >= 20) {
+          fail("sleepTime " + sleepTime);
+        }
+      });
+    }
+    report("WaitStrategies.randomWait", throughput);
+    assertScales(throughput);
+  }
+
+  /**
+   * 超时的任务必须被中断，结束后线程池里不能留下还在运行的任务
+   */
+  @Test
+  public void timedOutAttemptsAreInterrupted() throws Exception {
+    final AtomicInteger running = new AtomicInteger();
+    final double[] throughput = new double[THREADS.length];
+    for (int i = 0; i < THREADS.length; i++) {
+      ExecutorService pool = Executors.newCachedThreadPool();
+      final FixedTimeAttemptCaller<String> caller =
+          new FixedTimeAttemptCaller<>(pool, 1, TimeUnit.MILLISECONDS);
+      throughput[i] = stress(THREADS[i], () -> {
+        try {
+          caller.call(() -> {
+            running.incrementAndGet();
+            try {
+              Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+              return "late";
+            } finally {
+              running.decrementAndGet();
+            }
+          });
+          fail("expected TimeoutException");
+        } catch (TimeoutException expected) {
+          // 超时后任务被取消
+        }
+      });
+      pool.shutdown();
+      assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+      assertEquals(0, running.get());
+    }
+    // 受超时时间限制，不检查扩展性
+    report("FixedTimeAttemptCaller timeout", throughput);
+  }
+
+  /**
+   * 等待中被中断的Retryer必须抛出RetryException并保留中断状态
+   */
+  @Test
+  public void interruptedRetryerKeepsInterruptStatus() throws Exception {
+    final Retryer<String> retryer = RetryerBuilder.<String>newBuilder()
+        .caller(new NoTimeLimitedAttemptCaller<>(executorService))
+        .retryObservable(new RetryObservable())
+        .retryIfException()
+        .withStopStrategy(StopStrategies.neverStop())
+        .withWaitStrategy(WaitStrategies.fixedWait(1, TimeUnit.MILLISECONDS))
+        .build();
+    final double[] throughput = new double[THREADS.length];
+    for (int i = 0; i < THREADS.length; i++) {
+      throughput[i] = stress(THREADS[i], () -> {
+        final Thread caller = Thread.currentThread();
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        try {
+          retryer.call(() -> {
+            if (interrupted.compareAndSet(false, true)) {
+              caller.interrupt();
+            }
+            throw new IllegalStateException("always fail");
+          });
+          fail("expected RetryException");
+        } catch (RetryException e) {
+          assertTrue("interrupt status lost", Thread.interrupted());
+        }
+      });
+    }
+    // 受等待时间限制，不检查扩展性
+    report("Retryer interrupted", throughput);
+  }
+
+  /**
+   * 多个线程同时反复执行operation，第一个失败会让测试失败
+   *
+   * @return 每秒完成的操作数
+   */
+  private double stress(int threads, Operation operation) throws Exception {
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final CountDownLatch doneLatch = new CountDownLatch(threads);
+    final LongAdder operations = new LongAdder();
+    final List<Throwable> failures = new CopyOnWriteArrayList<>();
+    final long[] deadline = new long[1];
+    for (int i = 0; i < threads; i++) {
+      executorService.execute(() -> {
+        try {
+          startLatch.await();
+          while (failures.isEmpty() && System.nanoTime() - deadline[0] < 0) {
+            operation.run();
+            operations.increment();
+          }
+        } catch (Throwable t) {
+          failures.add(t);
+        } finally {
+          doneLatch.countDown();
+        }
+      });
+    }
+    final long start = System.nanoTime();
+    deadline[0] = start + DURATION;
+    startLatch.countDown();
+    assertTrue(doneLatch.await(30, TimeUnit.SECONDS));
+    if (!failures.isEmpty()) {
+      throw new AssertionError("threads=" + threads, failures.get(0));
+    }
+    long elapsed = System.nanoTime() - start;
+    assertTrue("no operation completed with " + threads + " threads", operations.sum() > 0);
+    return operations.sum() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+  }
+
+  private static void report(String scenario, double[] throughput) {
+    StringBuilder curve = new StringBuilder(scenario).append(" ops/s:");
+    for (int i = 0; i < THREADS.length; i++) {
+      curve.append(String.format(" %d threads=%.0f", THREADS[i], throughput[i]));
+    }
+    System.out.println(curve);
+  }
+
+  private static void assertScales(double[] throughput) {
+    double single = throughput[0];
+    double max = throughput[THREADS.length - 1];
+    assertTrue(String.format("%.0f ops/s with %d threads, %.0f with 1", max,
+        THREADS[THREADS.length - 1], single), max >= single / MAX_SLOWDOWN);
+  }
+
+  private interface Operation {
+
+    void run() throws Exception;
+  }
+
+  private static final class CountingSubscribe implements RetrySubscribe {
+
+    private final LongAdder count = new LongAdder();
+    private final long completedBefore;
+    private volatile long startedAfter;
+
+    public CountingSubscribe(long completedBefore, long startedAfter) {
+      this.completedBefore = completedBefore;
+      this.startedAfter = startedAfter;
+    }
+
+    @Override
+    public <V> void onRetry(Attempt<V> attempt) {
+      count.increment();
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import retry.attempt.Attempt;
+import retry.caller.FixedTimeAttemptCaller;
+import retry.exception.RetryException;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+import retry.strategy.WaitStrategies;
+import retry.subscribe.RetrySubscribe;
+
+public class FanOutRetryerTest {
+
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+  private final FanOutRetryer<String> fanOutRetryer = new FanOutRetryer<>(
+      RetryerBuilder.<String>newBuilder()
+          .caller(new FixedTimeAttemptCaller<>(executorService, 10, TimeUnit.SECONDS))
+          .retryObservable(new RetryObservable())
+          .retryIfException()
+          .withStopStrategy(StopStrategies.stopAfterAttempt(2))
+          .build(),
+      forkJoinPool);
+
+  @After
+  public void tearDown() {
+    forkJoinPool.shutdownNow();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void allOfKeepsCallableOrder() throws Exception {
+    List<String> results = fanOutRetryer.allOf(Arrays.<Callable<String>>asList(
+        delayed("a", 30), delayed("b", 0), delayed("c", 10)));
+    assertEquals(Arrays.asList("a", "b", "c"), results);
+  }
+
+  @Test
+  public void firstKInterruptsRemainingCalls() throws Exception {
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    Callable<String> slow = () -> {
+      try {
+        Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+        throw e;
+      }
+      return "slow";
+    };
+    List<String> results = fanOutRetryer.firstK(Arrays.asList(
+        delayed("fast", 0), slow), 1);
+    assertEquals(Arrays.asList("fast"), results);
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void cancelledShardsAreNotRecovered() throws Exception {
+    final AtomicInteger attempts = new AtomicInteger();
+    final AtomicInteger retryExceptions = new AtomicInteger();
+    final AtomicInteger fallbacks = new AtomicInteger();
+    RetryObservable retryObservable = new RetryObservable();
+    retryObservable.addRetrySubscribe(new RetrySubscribe() {
+      @Override
+      public <V> void onRetry(Attempt<V> attempt) {
+        attempts.incrementAndGet();
+      }
+
+      @Override
+      public void onRetryException(RetryException e) {
+        retryExceptions.incrementAndGet();
+      }
+    });
+    FanOutRetryer<String> retryer = new FanOutRetryer<>(
+        RetryerBuilder.<String>newBuilder()
+            .caller(new FixedTimeAttemptCaller<>(executorService, 10, TimeUnit.SECONDS))
+            .retryObservable(retryObservable)
+            .retryIfException()
+            .withStopStrategy(StopStrategies.stopAfterAttempt(3))
+            .withWaitStrategy(WaitStrategies.fixedWait(10, TimeUnit.SECONDS))
+            .withFallback((key, e) -> {
+              fallbacks.incrementAndGet();
+              return "fallback";
+            })
+            .build(),
+        forkJoinPool);
+    final CountDownLatch started = new CountDownLatch(2);
+    Callable<String> sleeping = () -> {
+      started.countDown();
+      Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+      return "slow";
+    };
+    Callable<String> waiting = () -> {
+      started.countDown();
+      throw new IllegalStateException("down");
+    };
+    Callable<String> fast = () -> {
+      started.await();
+      // 让失败的分片进入重试等待
+      Thread.sleep(50);
+      return "fast";
+    };
+
+    List<String> results = retryer.firstK(Arrays.asList(fast, sleeping, waiting), 1);
+    assertEquals(Arrays.asList("fast"), results);
+    forkJoinPool.shutdown();
+    assertTrue(forkJoinPool.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals("fast and the first failure", 2, attempts.get());
+    assertEquals(0, retryExceptions.get());
+    assertEquals(0, fallbacks.get());
+  }
+
+  @Test
+  public void quorumFailsWhenMajorityFails() throws Exception {
+    Callable<String> failing = () -> {
+      throw new IllegalStateException("down");
+    };
+    try {
+      fanOutRetryer.quorum(Arrays.asList(delayed("ok", 0), failing, failing));
+      fail("expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("2 of 3 calls failed"));
+    }
+  }
+
+  private static Callable<String> delayed(String value, long millis) {
+    return () -> {
+      Thread.sleep(millis);
+      return value;
+    };
+  }
+}
@@ -0,0 +1,119 @@
+package retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import retry.attempt.IntResultAttempt;
+import retry.exception.RetryException;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+import retry.strategy.WaitStrategies;
+
+public class IntRetryerTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    Thread.interrupted();
+  }
+
+  @Test
+  public void retriesWhileResultMatches() throws Exception {
+    IntRetryer retryer = IntRetryer.from(builder(5), result -> result < 3);
+    assertEquals(3, retryer.call(calls::incrementAndGet));
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void retriesConfiguredException() throws Exception {
+    IntRetryer retryer = IntRetryer.from(builder(5), result -> false);
+    assertEquals(7, retryer.call(() -> {
+      if (calls.incrementAndGet() < 2) {
+        throw new IllegalStateException("down");
+      }
+      return 7;
+    }));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void otherExceptionIsNotRetried() {
+    IntRetryer retryer = IntRetryer.from(RetryerBuilder.<Integer>newBuilder()
+        .retryObservable(new RetryObservable())
+        .retryIfExceptionOfType(IllegalStateException.class), result -> false);
+    try {
+      retryer.call(() -> {
+        calls.incrementAndGet();
+        throw new IllegalArgumentException("bad");
+      });
+      fail("expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void stopsAfterLastAttempt() throws Exception {
+    IntRetryer retryer = IntRetryer.from(builder(3), result -> true);
+    try {
+      retryer.call(calls::incrementAndGet);
+      fail("expected RetryException");
+    } catch (RetryException e) {
+      IntResultAttempt attempt = (IntResultAttempt) e.getLastFailedAttempt();
+      assertEquals(3, attempt.getIntResult());
+      assertEquals(3L, attempt.getAttemptTimes());
+    }
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void interruptedCallStopsRetrying() throws Exception {
+    IntRetryer retryer = IntRetryer.from(RetryerBuilder.<Integer>newBuilder()
+        .retryObservable(new RetryObservable())
+        .retryIfException(), result -> false);
+    try {
+      retryer.call(() -> {
+        calls.incrementAndGet();
+        throw new InterruptedException();
+      });
+      fail("expected RetryException");
+    } catch (RetryException e) {
+      assertTrue(Thread.interrupted());
+    }
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void interruptedWaitStopsRetrying() throws Exception {
+    IntRetryer retryer = IntRetryer.from(builder(5)
+        .withWaitStrategy(WaitStrategies.fixedWait(1, TimeUnit.SECONDS)), result -> true);
+    Thread.currentThread().interrupt();
+    try {
+      retryer.call(calls::incrementAndGet);
+      fail("expected RetryException");
+    } catch (RetryException e) {
+      assertTrue(Thread.interrupted());
+    }
+    assertEquals(1, calls.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsBuilderWithCaller() {
+    IntRetryer.from(builder(3).caller(callable -> 0), result -> false);
+  }
+
+  private static RetryerBuilder<Integer> builder(int attempts) {
+    return RetryerBuilder.<Integer>newBuilder()
+        .retryObservable(new RetryObservable())
+        .retryIfException()
+        .withStopStrategy(StopStrategies.stopAfterAttempt(attempts));
+  }
+}
@@ -0,0 +1,73 @@
+package retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import retry.attempt.LongResultAttempt;
+import retry.exception.RetryException;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+
+public class LongRetryerTest {
+
+  private final AtomicLong calls = new AtomicLong();
+
+  @Test
+  public void retriesWhileResultMatches() throws Exception {
+    LongRetryer retryer = LongRetryer.from(builder(5), result -> result < 3L);
+    assertEquals(3L, retryer.call(calls::incrementAndGet));
+  }
+
+  @Test
+  public void retriesConfiguredException() throws Exception {
+    LongRetryer retryer = LongRetryer.from(builder(5), result -> false);
+    assertEquals(7L, retryer.call(() -> {
+      if (calls.incrementAndGet() < 2L) {
+        throw new IllegalStateException("down");
+      }
+      return 7L;
+    }));
+    assertEquals(2L, calls.get());
+  }
+
+  @Test
+  public void stopsAfterLastAttempt() throws Exception {
+    LongRetryer retryer = LongRetryer.from(builder(2), result -> true);
+    try {
+      retryer.call(calls::incrementAndGet);
+      fail("expected RetryException");
+    } catch (RetryException e) {
+      assertEquals(2L, ((LongResultAttempt) e.getLastFailedAttempt()).getLongResult());
+    }
+  }
+
+  @Test
+  public void interruptedCallStopsRetrying() throws Exception {
+    LongRetryer retryer = LongRetryer.from(builder(5), result -> false);
+    try {
+      retryer.call(() -> {
+        calls.incrementAndGet();
+        throw new InterruptedException();
+      });
+      fail("expected RetryException");
+    } catch (RetryException e) {
+      assertTrue(Thread.interrupted());
+    }
+    assertEquals(1L, calls.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsBuilderWithCaller() {
+    LongRetryer.from(builder(3).caller(callable -> 0L), result -> false);
+  }
+
+  private static RetryerBuilder<Long> builder(int attempts) {
+    return RetryerBuilder.<Long>newBuilder()
+        .retryObservable(new RetryObservable())
+        .retryIfException()
+        .withStopStrategy(StopStrategies.stopAfterAttempt(attempts));
+  }
+}
@@ -0,0 +1,116 @@
+package retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import retry.caller.NoTimeLimitedAttemptCaller;
+import retry.exception.CircuitOpenException;
+import retry.exception.RetryException;
+import retry.isolation.RetryIsolation;
+import retry.isolation.RetryIsolation.KeyState;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+
+public class RetryerIsolationTest {
+
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void stopDoesNotSpendRetryBudget() throws Exception {
+    RetryIsolation isolation = RetryIsolation.newBuilder().retryBudget(0D, 2).build();
+    Retryer<String> retryer = failingRetryer(isolation, 2);
+
+    callExpectingRetryException(retryer);
+    KeyState state = isolation.getState("tenant");
+    assertEquals(1L, state.getRetryCount());
+    assertEquals(0L, state.getRejectedRetryCount());
+
+    callExpectingRetryException(retryer);
+    assertEquals(2L, state.getRetryCount());
+    assertEquals(0L, state.getRejectedRetryCount());
+    assertEquals(4, calls.get());
+
+    callExpectingRetryException(retryer);
+    assertEquals(1L, state.getRejectedRetryCount());
+    assertEquals(5, calls.get());
+  }
+
+  @Test
+  public void openCircuitSkipsCalls() throws Exception {
+    RetryIsolation isolation = RetryIsolation.newBuilder()
+        .circuitBreaker(1, 1, TimeUnit.MINUTES)
+        .build();
+    Retryer<String> retryer = failingRetryer(isolation, 1);
+    callExpectingRetryException(retryer);
+    assertEquals(1, calls.get());
+    try {
+      retryer.call("tenant", () -> "unused");
+      fail("expected RetryException");
+    } catch (RetryException e) {
+      assertTrue(e.getLastFailedAttempt().getCause() instanceof CircuitOpenException);
+    }
+    assertEquals(1, calls.get());
+    assertEquals("other keys are not affected", "ok", retryer.call("other", () -> "ok"));
+  }
+
+  @Test
+  public void unexpectedErrorEndsHalfOpenProbe() throws Exception {
+    RetryIsolation isolation = RetryIsolation.newBuilder()
+        .circuitBreaker(1, 10, TimeUnit.MILLISECONDS)
+        .build();
+    Retryer<String> retryer = RetryerBuilder.<String>newBuilder()
+        .caller(new NoTimeLimitedAttemptCaller<>(executorService))
+        .retryObservable(new RetryObservable())
+        .retryIfResult(result -> {
+          throw new IllegalStateException("broken predicate");
+        })
+        .withIsolation(isolation)
+        .build();
+    KeyState state = isolation.state("tenant");
+    state.onFailure();
+    TimeUnit.MILLISECONDS.sleep(20);
+    try {
+      retryer.call("tenant", () -> "probe");
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException expected) {
+      // 判断条件抛出的异常直接抛给调用方
+    }
+    TimeUnit.MILLISECONDS.sleep(20);
+    assertTrue("probe slot was released", state.allowCall());
+  }
+
+  private Retryer<String> failingRetryer(RetryIsolation isolation, int attempts) {
+    return RetryerBuilder.<String>newBuilder()
+        .caller(new NoTimeLimitedAttemptCaller<>(executorService))
+        .retryObservable(new RetryObservable())
+        .retryIfException()
+        .withStopStrategy(StopStrategies.stopAfterAttempt(attempts))
+        .withIsolation(isolation)
+        .build();
+  }
+
+  private void callExpectingRetryException(Retryer<String> retryer) throws Exception {
+    try {
+      retryer.call("tenant", () -> {
+        calls.incrementAndGet();
+        throw new IllegalStateException("down");
+      });
+      fail("expected RetryException");
+    } catch (RetryException expected) {
+      // 重试结束
+    }
+  }
+}
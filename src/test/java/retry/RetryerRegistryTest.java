@@ -0,0 +1,52 @@
+package retry;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Test;
+
+public class RetryerRegistryTest {
+
+  private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+  private final RetryerRegistry registry = new RetryerRegistry(executorService)
+      .addTemplate("fast", RetryerTemplate.newBuilder().build())
+      .addTemplate("slow", RetryerTemplate.newBuilder().build());
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void returnsSameRetryerForSameTemplate() {
+    Retryer<String> retryer = registry.retryer("user", "fast");
+    assertSame(retryer, registry.<String>retryer("user", "fast"));
+    assertSame(retryer, registry.get("user"));
+    assertNull(registry.get("order"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void rejectsHitWithDifferentTemplate() {
+    registry.<String>retryer("user", "fast");
+    registry.<String>retryer("user", "slow");
+  }
+
+  @Test
+  public void customizerMayUseRegistry() {
+    Retryer<String> retryer = registry.<String>retryer("user", "fast", builder -> {
+      registry.<String>retryer("order", "slow");
+      return builder;
+    });
+    assertSame(retryer, registry.get("user"));
+    assertNotNull(registry.get("order"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnknownTemplate() {
+    registry.<String>retryer("user", "missing");
+  }
+}
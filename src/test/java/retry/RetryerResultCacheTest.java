@@ -0,0 +1,88 @@
+package retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import retry.cache.LruResultCache;
+import retry.caller.NoTimeLimitedAttemptCaller;
+import retry.exception.RetryException;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+
+public class RetryerResultCacheTest {
+
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private final AtomicInteger fallbackCalls = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void cachedResultIsUsedBeforeFallback() throws Exception {
+    Retryer<String> retryer = retryer(new LruResultCache<>(10, 1, TimeUnit.MINUTES));
+    assertEquals("fresh", retryer.call("key", () -> "fresh"));
+    assertEquals("fresh", retryer.call("key", this::unavailable));
+    assertEquals(0, fallbackCalls.get());
+  }
+
+  @Test
+  public void fallbackWithoutCachedResult() throws Exception {
+    Retryer<String> retryer = retryer(new LruResultCache<>(10, 1, TimeUnit.MINUTES));
+    assertEquals("fallback", retryer.call("key", this::unavailable));
+    assertEquals(1, fallbackCalls.get());
+  }
+
+  @Test
+  public void nullKeyIsNotCached() throws Exception {
+    Retryer<String> retryer = retryer(new LruResultCache<>(10, 1, TimeUnit.MINUTES));
+    assertEquals("fresh", retryer.call(null, () -> "fresh"));
+    assertEquals("fallback", retryer.call(null, this::unavailable));
+    assertEquals(1, fallbackCalls.get());
+  }
+
+  @Test
+  public void rethrowsWithoutCacheOrFallback() throws Exception {
+    Retryer<String> retryer = RetryerBuilder.<String>newBuilder()
+        .caller(new NoTimeLimitedAttemptCaller<>(executorService))
+        .retryObservable(new RetryObservable())
+        .retryIfException()
+        .withStopStrategy(StopStrategies.stopAfterAttempt(1))
+        .build();
+    IllegalStateException cause = new IllegalStateException("down");
+    try {
+      retryer.call("key", () -> {
+        throw cause;
+      });
+      fail("expected RetryException");
+    } catch (RetryException e) {
+      assertSame(cause, e.getLastFailedAttempt().getCause());
+    }
+  }
+
+  private Retryer<String> retryer(LruResultCache<String> cache) {
+    return RetryerBuilder.<String>newBuilder()
+        .caller(new NoTimeLimitedAttemptCaller<>(executorService))
+        .retryObservable(new RetryObservable())
+        .retryIfException()
+        .withStopStrategy(StopStrategies.stopAfterAttempt(2))
+        .withResultCache(cache)
+        .withFallback((key, e) -> {
+          fallbackCalls.incrementAndGet();
+          return "fallback";
+        })
+        .build();
+  }
+
+  private String unavailable() {
+    throw new IllegalStateException("down");
+  }
+}
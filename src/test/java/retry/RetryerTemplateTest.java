@@ -0,0 +1,44 @@
+package retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import retry.publish.RetryObservable;
+import retry.strategy.WaitStrategies;
+
+public class RetryerTemplateTest {
+
+  @Test
+  public void keepsSubMillisecondTimeout() {
+    RetryerTemplate template = RetryerTemplate.newBuilder()
+        .withTimeout(500, TimeUnit.MICROSECONDS)
+        .build();
+    assertEquals(TimeUnit.MICROSECONDS.toNanos(500), template.getTimeout());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsSharedStatefulWaitStrategy() {
+    RetryerTemplate.newBuilder()
+        .withWaitStrategy(WaitStrategies.recoveryTimeWait(1, 100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsCompositeContainingStatefulWaitStrategy() {
+    RetryerTemplate.newBuilder().withWaitStrategy(WaitStrategies.join(
+        WaitStrategies.fixedWait(1, TimeUnit.MILLISECONDS),
+        WaitStrategies.recoveryTimeWait(1, 100, TimeUnit.MILLISECONDS)));
+  }
+
+  @Test
+  public void createsWaitStrategyPerRetryerFromFactory() {
+    RetryerTemplate template = RetryerTemplate.newBuilder()
+        .withWaitStrategyFactory(
+            () -> WaitStrategies.recoveryTimeWait(1, 100, TimeUnit.MILLISECONDS))
+        .build();
+    RetryObservable observable = new RetryObservable();
+    assertNotSame(template.<String>toBuilder(null, observable).theWaitStrategy(),
+        template.<String>toBuilder(null, observable).theWaitStrategy());
+  }
+}
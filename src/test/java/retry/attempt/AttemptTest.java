@@ -0,0 +1,64 @@
+package retry.attempt;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AttemptTest {
+
+    @Test
+    public void timingDefaultsForOutsideImplementations() {
+        Attempt<String> attempt = new Attempt<String>() {
+            @Override
+            public boolean hasResult() {
+                return true;
+            }
+
+            @Override
+            public boolean hasException() {
+                return false;
+            }
+
+            @Override
+            public String get() {
+                return "ok";
+            }
+
+            @Override
+            public String getResult() {
+                return "ok";
+            }
+
+            @Override
+            public Throwable getCause() {
+                throw new IllegalStateException("no exception");
+            }
+
+            @Override
+            public long getAttemptTimes() {
+                return 1L;
+            }
+
+            @Override
+            public long getDelaySinceFirstAttempt() {
+                return 5L;
+            }
+        };
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5L), attempt.getDelaySinceFirstAttemptNanos());
+        assertEquals(0L, attempt.getCallDuration());
+        assertEquals(0L, attempt.getQueueDelay());
+        assertEquals(0L, attempt.getSleepTime());
+    }
+
+    @Test
+    public void builtInAttemptsKeepRecordedTiming() {
+        ResultAttempt<String> attempt = new ResultAttempt<>("ok", 2L, 3_000_000L, 1_000L, 2_000L,
+            500L);
+        assertEquals(3L, attempt.getDelaySinceFirstAttempt());
+        assertEquals(3_000_000L, attempt.getDelaySinceFirstAttemptNanos());
+        assertEquals(1_000L, attempt.getCallDuration());
+        assertEquals(2_000L, attempt.getQueueDelay());
+        assertEquals(500L, attempt.getSleepTime());
+    }
+}
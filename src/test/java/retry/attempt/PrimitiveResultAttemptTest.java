@@ -0,0 +1,59 @@
+package retry.attempt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PrimitiveResultAttemptTest {
+
+    @Test
+    public void intAttemptKeepsResultAndTiming() throws Exception {
+        IntResultAttempt attempt = new IntResultAttempt(7, 2L, 3_000_000L, 100L, 200L, 300L);
+        assertEquals(7, attempt.getIntResult());
+        assertEquals(Integer.valueOf(7), attempt.get());
+        assertResultAttempt(attempt);
+    }
+
+    @Test
+    public void longAttemptKeepsResultAndTiming() throws Exception {
+        LongResultAttempt attempt = new LongResultAttempt(7L, 2L, 3_000_000L, 100L, 200L, 300L);
+        assertEquals(7L, attempt.getLongResult());
+        assertEquals(Long.valueOf(7L), attempt.getResult());
+        assertResultAttempt(attempt);
+    }
+
+    @Test
+    public void booleanAttemptKeepsResultAndTiming() throws Exception {
+        BooleanResultAttempt attempt =
+                new BooleanResultAttempt(true, 2L, 3_000_000L, 100L, 200L, 300L);
+        assertTrue(attempt.getBooleanResult());
+        assertEquals(Boolean.TRUE, attempt.get());
+        assertResultAttempt(attempt);
+    }
+
+    @Test
+    public void millisecondConstructorConvertsDelay() {
+        assertEquals(5_000_000L,
+                new IntResultAttempt(1, 1L, 5L).getDelaySinceFirstAttemptNanos());
+        assertEquals(5L, new LongResultAttempt(1L, 1L, 5L).getDelaySinceFirstAttempt());
+        assertEquals(0L, new BooleanResultAttempt(false, 1L, 5L).getSleepTime());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void resultAttemptHasNoCause() {
+        new IntResultAttempt(1, 1L, 0L).getCause();
+    }
+
+    private static void assertResultAttempt(Attempt<?> attempt) {
+        assertTrue(attempt.hasResult());
+        assertFalse(attempt.hasException());
+        assertEquals(2L, attempt.getAttemptTimes());
+        assertEquals(3L, attempt.getDelaySinceFirstAttempt());
+        assertEquals(3_000_000L, attempt.getDelaySinceFirstAttemptNanos());
+        assertEquals(100L, attempt.getCallDuration());
+        assertEquals(200L, attempt.getQueueDelay());
+        assertEquals(300L, attempt.getSleepTime());
+    }
+}
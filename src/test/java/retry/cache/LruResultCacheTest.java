@@ -0,0 +1,82 @@
+package retry.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class LruResultCacheTest {
+
+  @Test
+  public void expiresAfterTimeToLive() throws Exception {
+    LruResultCache<String> cache = new LruResultCache<>(10, 20, TimeUnit.MILLISECONDS);
+    cache.put("key", "value");
+    assertEquals("value", cache.get("key"));
+    TimeUnit.MILLISECONDS.sleep(30);
+    assertNull(cache.get("key"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() throws Exception {
+    LruResultCache<String> cache = new LruResultCache<>(2, 1, TimeUnit.MINUTES);
+    cache.put("a", "1");
+    cache.put("b", "2");
+    assertEquals("1", cache.get("a"));
+    cache.put("c", "3");
+    assertEquals(2, cache.size());
+    assertEquals("1", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals("3", cache.get("c"));
+  }
+
+  @Test
+  public void ignoresNulls() {
+    LruResultCache<String> cache = new LruResultCache<>(2, 1, TimeUnit.MINUTES);
+    cache.put(null, "value");
+    cache.put("key", null);
+    assertEquals(0, cache.size());
+    assertNull(cache.get(null));
+    assertNull(cache.get("missing"));
+  }
+
+  @Test
+  public void concurrentPutsStayNearMaximumSize() throws Exception {
+    final int threads = 8;
+    final int maximumSize = 64;
+    final LruResultCache<Integer> cache =
+        new LruResultCache<>(maximumSize, 1, TimeUnit.MINUTES);
+    final CyclicBarrier barrier = new CyclicBarrier(threads);
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        final int offset = t * 10_000;
+        futures.add(executorService.submit(() -> {
+          barrier.await();
+          for (int i = 0; i < 10_000; i++) {
+            cache.put(offset + i, i);
+            cache.get(offset + i / 2);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    // 淘汰期间其他线程还能写入，结束后最后一次写入会再淘汰一次
+    cache.put(-1, -1);
+    assertTrue("size " + cache.size(), cache.size() <= maximumSize);
+  }
+}
@@ -0,0 +1,140 @@
+package retry.caller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.After;
+import org.junit.Test;
+
+public class AbandonLimitedAttemptCallerTest {
+
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void timeoutIgnoringInterruptIsCountedUntilItFinishes() throws Exception {
+    AbandonLimitedAttemptCaller<String> caller = new AbandonLimitedAttemptCaller<>(
+        executorService, 20, TimeUnit.MILLISECONDS, 2);
+    callExpectingTimeout(caller);
+    assertEquals(1, caller.getAbandonedCount());
+    assertEquals(1L, caller.getTotalAbandonedCount());
+
+    release.countDown();
+    awaitAbandonedCount(caller, 0);
+    assertEquals(1L, caller.getTotalAbandonedCount());
+    assertEquals("ok", caller.call(() -> "ok"));
+  }
+
+  @Test
+  public void rejectsAtLimit() throws Exception {
+    AbandonLimitedAttemptCaller<String> caller = new AbandonLimitedAttemptCaller<>(
+        executorService, 20, TimeUnit.MILLISECONDS, 1);
+    callExpectingTimeout(caller);
+    try {
+      caller.call(() -> "rejected");
+      fail("expected RejectedExecutionException");
+    } catch (RejectedExecutionException expected) {
+      assertEquals(1L, caller.getRejectedCount());
+    }
+  }
+
+  @Test
+  public void waitsUntilSlotFrees() throws Exception {
+    AbandonLimitedAttemptCaller<String> caller = new AbandonLimitedAttemptCaller<>(
+        executorService, 20, TimeUnit.MILLISECONDS, 1, 5, TimeUnit.SECONDS);
+    callExpectingTimeout(caller);
+    executorService.execute(() -> {
+      sleepQuietly(50);
+      release.countDown();
+    });
+    assertEquals("ok", caller.call(() -> "ok"));
+    assertEquals(0L, caller.getRejectedCount());
+    assertEquals(0, caller.getAbandonedCount());
+  }
+
+  @Test
+  public void concurrentCallersCannotExceedLimit() throws Exception {
+    final AbandonLimitedAttemptCaller<String> caller = new AbandonLimitedAttemptCaller<>(
+        executorService, 50, TimeUnit.MILLISECONDS, 2);
+    final int callers = 8;
+    final CyclicBarrier barrier = new CyclicBarrier(callers);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < callers; i++) {
+      futures.add(executorService.submit(() -> {
+        barrier.await();
+        try {
+          caller.call(uninterruptible());
+        } catch (TimeoutException | RejectedExecutionException expected) {
+          // 超时或者被拒绝
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get(5, TimeUnit.SECONDS);
+    }
+    assertTrue("abandoned " + caller.getAbandonedCount(), caller.getAbandonedCount() <= 2);
+    assertEquals(callers - caller.getTotalAbandonedCount(), caller.getRejectedCount());
+  }
+
+  private void callExpectingTimeout(AbandonLimitedAttemptCaller<String> caller)
+      throws Exception {
+    try {
+      caller.call(uninterruptible());
+      fail("expected TimeoutException");
+    } catch (TimeoutException expected) {
+      // 任务不响应中断，超时后继续运行
+    }
+  }
+
+  /**
+   * 忽略中断，一直运行到release
+   */
+  private Callable<String> uninterruptible() {
+    return () -> {
+      for (; ; ) {
+        try {
+          release.await();
+          return "late";
+        } catch (InterruptedException ignored) {
+          // 不响应中断
+        }
+      }
+    };
+  }
+
+  private static void awaitAbandonedCount(AbandonLimitedAttemptCaller<?> caller, int expected)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (caller.getAbandonedCount() != expected && System.nanoTime() - deadline < 0) {
+      TimeUnit.MILLISECONDS.sleep(5);
+    }
+    assertEquals(expected, caller.getAbandonedCount());
+  }
+
+  private static void sleepQuietly(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
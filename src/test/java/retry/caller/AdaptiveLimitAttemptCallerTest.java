@@ -0,0 +1,83 @@
+package retry.caller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import retry.exception.LimitExceededException;
+import retry.strategy.LimitStrategies;
+
+public class AdaptiveLimitAttemptCallerTest {
+
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void rejectsAttemptsAboveLimit() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AdaptiveLimitAttemptCaller<String> caller = new AdaptiveLimitAttemptCaller<>(
+        new NoTimeLimitedAttemptCaller<>(executorService),
+        LimitStrategies.aimd(1, 1, 1, 0.5D, 1, TimeUnit.SECONDS));
+    Future<String> blocked = executorService.submit(() -> caller.call(() -> {
+      started.countDown();
+      release.await();
+      return "ok";
+    }));
+    assertTrue(started.await(1, TimeUnit.SECONDS));
+    try {
+      caller.call(() -> "rejected");
+      fail("expected LimitExceededException");
+    } catch (LimitExceededException e) {
+      assertEquals(1, e.getLimit());
+    }
+    release.countDown();
+    assertEquals("ok", blocked.get(1, TimeUnit.SECONDS));
+    assertEquals(1L, caller.getRejectedCount());
+    assertEquals(0, caller.getInFlight());
+  }
+
+  @Test
+  public void downstreamFailureLowersLimit() throws Exception {
+    AdaptiveLimitAttemptCaller<String> caller = new AdaptiveLimitAttemptCaller<>(
+        failingCaller(), LimitStrategies.aimd(10, 1, 100, 0.5D, 1, TimeUnit.SECONDS));
+    callIgnoringFailure(caller);
+    assertEquals(5, caller.getLimit());
+  }
+
+  @Test
+  public void dropPredicateCanIgnoreDownstreamFailure() throws Exception {
+    AdaptiveLimitAttemptCaller<String> caller = new AdaptiveLimitAttemptCaller<>(
+        failingCaller(), LimitStrategies.aimd(10, 1, 100, 0.5D, 1, TimeUnit.SECONDS),
+        cause -> !(cause instanceof IllegalStateException));
+    callIgnoringFailure(caller);
+    assertEquals(10, caller.getLimit());
+  }
+
+  private static AttemptCaller<String> failingCaller() {
+    return callable -> {
+      throw new ExecutionException(new IllegalStateException("503"));
+    };
+  }
+
+  private static void callIgnoringFailure(AttemptCaller<String> caller) throws Exception {
+    try {
+      caller.call(() -> "unused");
+      fail("expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package retry.caller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrioritySchedulerTest {
+
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private PriorityScheduler scheduler;
+
+  @Before
+  public void setUp() throws Exception {
+    scheduler = new PriorityScheduler(1, 1);
+    // 占住唯一的线程，后面提交的任务都在排队
+    scheduler.submit(() -> {
+      started.countDown();
+      release.await();
+      return null;
+    }, Priority.HIGH, deadline());
+    assertTrue(started.await(1, TimeUnit.SECONDS));
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void higherPriorityShedsQueuedLowerPriority() throws Exception {
+    Future<String> low = scheduler.submit(() -> "low", Priority.LOW, deadline());
+    Future<String> high = scheduler.submit(() -> "high", Priority.HIGH, deadline());
+    assertCause(low, RejectedExecutionException.class);
+    assertEquals(1L, scheduler.getShedCount(Priority.LOW));
+    try {
+      scheduler.submit(() -> "normal", Priority.NORMAL, deadline());
+      fail("expected RejectedExecutionException");
+    } catch (RejectedExecutionException expected) {
+      assertEquals(1L, scheduler.getRejectedCount(Priority.NORMAL));
+    }
+    release.countDown();
+    assertEquals("high", high.get(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void cancelledTaskLeavesQueue() throws Exception {
+    Future<String> cancelled = scheduler.submit(() -> "first", Priority.LOW, deadline());
+    assertEquals(1, scheduler.getQueuedCount(Priority.LOW));
+    assertTrue(cancelled.cancel(true));
+    assertEquals(0, scheduler.getQueuedCount(Priority.LOW));
+    Future<String> next = scheduler.submit(() -> "second", Priority.LOW, deadline());
+    release.countDown();
+    assertEquals("second", next.get(1, TimeUnit.SECONDS));
+    assertEquals(0L, scheduler.getRejectedCount(Priority.LOW));
+  }
+
+  @Test
+  public void expiredTaskFailsWithoutRunning() throws Exception {
+    Future<String> expired = scheduler.submit(() -> "late", Priority.NORMAL,
+        System.nanoTime() - 1L);
+    release.countDown();
+    assertCause(expired, TimeoutException.class);
+    assertEquals(1L, scheduler.getExpiredCount(Priority.NORMAL));
+  }
+
+  private static long deadline() {
+    return System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+  }
+
+  private static void assertCause(Future<?> future, Class<? extends Throwable> causeType)
+      throws Exception {
+    try {
+      future.get(1, TimeUnit.SECONDS);
+      fail("expected ExecutionException");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause().toString(), causeType.isInstance(e.getCause()));
+    }
+  }
+}
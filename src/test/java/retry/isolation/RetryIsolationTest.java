@@ -0,0 +1,58 @@
+package retry.isolation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import retry.isolation.RetryIsolation.KeyState;
+
+public class RetryIsolationTest {
+
+  @Test
+  public void halfOpenCircuitAllowsSingleProbe() throws Exception {
+    RetryIsolation isolation = RetryIsolation.newBuilder()
+        .circuitBreaker(1, 20, TimeUnit.MILLISECONDS)
+        .build();
+    KeyState state = isolation.state("tenant");
+    state.onFailure();
+    assertTrue(state.isOpen());
+    assertFalse(state.allowCall());
+
+    TimeUnit.MILLISECONDS.sleep(30);
+    assertTrue(state.allowCall());
+    assertFalse(state.allowCall());
+    assertTrue(state.isOpen());
+
+    state.onFailure();
+    assertFalse("failed probe reopens the circuit", state.allowCall());
+    TimeUnit.MILLISECONDS.sleep(30);
+    assertTrue(state.allowCall());
+    state.onSuccess();
+    assertFalse(state.isOpen());
+    assertTrue(state.allowCall());
+    assertTrue(state.allowCall());
+  }
+
+  @Test
+  public void evictionKeepsFailingAndThrottledKeys() {
+    RetryIsolation isolation = RetryIsolation.newBuilder()
+        .maxKeys(10)
+        .retryBudget(0D, 2)
+        .circuitBreaker(3, 1, TimeUnit.MINUTES)
+        .build();
+    KeyState failing = isolation.state("failing");
+    failing.onFailure();
+    KeyState throttled = isolation.state("throttled");
+    throttled.tryAcquireRetry();
+    for (int i = 0; i < 100; i++) {
+      isolation.state("idle-" + i);
+    }
+    assertTrue("size " + isolation.size(), isolation.size() <= 10);
+    assertSame(failing, isolation.getState("failing"));
+    assertSame(throttled, isolation.getState("throttled"));
+    assertNotNull("newest key survives", isolation.getState("idle-99"));
+  }
+}
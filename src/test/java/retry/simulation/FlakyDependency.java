@@ -0,0 +1,163 @@
+package retry.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内模拟的不稳定下游：按分布产生耗时，按比例失败，
+ * 在故障时间窗内全部失败，超过容量的并发直接拒绝
+ */
+public final class FlakyDependency {
+
+  private final LatencyDistribution latency;
+  private final double errorRate;
+  private final int capacity;
+  private final List<long[]> outages;
+  private final AtomicInteger concurrency = new AtomicInteger();
+  private final AtomicInteger peakConcurrency = new AtomicInteger();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder rejectedCalls = new LongAdder();
+  private final LongAdder failedCalls = new LongAdder();
+  private volatile long startTime = System.nanoTime();
+
+  private FlakyDependency(Builder builder) {
+    this.latency = builder.latency;
+    this.errorRate = builder.errorRate;
+    this.capacity = builder.capacity;
+    this.outages = new ArrayList<>(builder.outages);
+  }
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * 重置计数，故障时间窗从现在开始计算
+   */
+  public void reset() {
+    calls.reset();
+    rejectedCalls.reset();
+    failedCalls.reset();
+    peakConcurrency.set(0);
+    startTime = System.nanoTime();
+  }
+
+  public String call() {
+    calls.increment();
+    int current = concurrency.incrementAndGet();
+    try {
+      updatePeak(current);
+      if (current > capacity) {
+        rejectedCalls.increment();
+        throw new RejectedExecutionException("simulated dependency over capacity");
+      }
+      Random random = ThreadLocalRandom.current();
+      LockSupport.parkNanos(latency.nextLatency(random));
+      if (inOutage(System.nanoTime() - startTime) || random.nextDouble() < errorRate) {
+        failedCalls.increment();
+        throw new IllegalStateException("simulated dependency failure");
+      }
+      return "ok";
+    } finally {
+      concurrency.decrementAndGet();
+    }
+  }
+
+  private void updatePeak(int current) {
+    for (; ; ) {
+      int peak = peakConcurrency.get();
+      if (current <= peak || peakConcurrency.compareAndSet(peak, current)) {
+        return;
+      }
+    }
+  }
+
+  private boolean inOutage(long elapsed) {
+    for (long[] outage : outages) {
+      if (elapsed >= outage[0] && elapsed < outage[1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 下游收到的调用次数，包括被拒绝的调用
+   */
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  public long getRejectedCalls() {
+    return rejectedCalls.sum();
+  }
+
+  public long getFailedCalls() {
+    return failedCalls.sum();
+  }
+
+  public int getPeakConcurrency() {
+    return peakConcurrency.get();
+  }
+
+  public static final class Builder {
+
+    private LatencyDistribution latency = random -> 0L;
+    private double errorRate;
+    private int capacity = Integer.MAX_VALUE;
+    private final List<long[]> outages = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    public Builder latency(LatencyDistribution latency) {
+      if (latency == null) {
+        throw new IllegalArgumentException("latency must not be null");
+      }
+      this.latency = latency;
+      return this;
+    }
+
+    public Builder errorRate(double errorRate) {
+      if (errorRate < 0D || errorRate > 1D) {
+        throw new IllegalArgumentException("errorRate must be between 0 and 1");
+      }
+      this.errorRate = errorRate;
+      return this;
+    }
+
+    public Builder capacity(int capacity) {
+      if (capacity < 1) {
+        throw new IllegalArgumentException("capacity must be > 0");
+      }
+      this.capacity = capacity;
+      return this;
+    }
+
+    /**
+     * 故障时间窗，从{@link #reset()}开始计时
+     */
+    public Builder outage(long start, long duration, TimeUnit timeUnit) {
+      if (timeUnit == null) {
+        throw new IllegalArgumentException("timeUnit must not be null");
+      }
+      if (start < 0 || duration <= 0) {
+        throw new IllegalArgumentException("must have start >= 0 and duration > 0");
+      }
+      long begin = timeUnit.toNanos(start);
+      outages.add(new long[]{begin, begin + timeUnit.toNanos(duration)});
+      return this;
+    }
+
+    public FlakyDependency build() {
+      return new FlakyDependency(this);
+    }
+  }
+}
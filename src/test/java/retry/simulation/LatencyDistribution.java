@@ -0,0 +1,15 @@
+package retry.simulation;
+
+import java.util.Random;
+
+/**
+ * 模拟下游的耗时分布
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+  /**
+   * 下一次调用的耗时(纳秒)
+   */
+  long nextLatency(Random random);
+}
@@ -0,0 +1,46 @@
+package retry.simulation;
+
+import java.util.concurrent.TimeUnit;
+
+public final class LatencyDistributions {
+
+  private LatencyDistributions() {
+  }
+
+  public static LatencyDistribution fixed(long latency, TimeUnit timeUnit) {
+    if (timeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    final long nanos = timeUnit.toNanos(latency);
+    if (nanos < 0) {
+      throw new IllegalArgumentException("latency may not be negative");
+    }
+    return random -> nanos;
+  }
+
+  public static LatencyDistribution uniform(long minimum, long maximum, TimeUnit timeUnit) {
+    if (timeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    if (minimum < 0 || maximum <= minimum) {
+      throw new IllegalArgumentException("must have 0 <= minimum < maximum");
+    }
+    final long min = timeUnit.toNanos(minimum);
+    final long range = timeUnit.toNanos(maximum) - min;
+    return random -> min + (long) (random.nextDouble() * range);
+  }
+
+  /**
+   * 指数分布，长尾明显
+   */
+  public static LatencyDistribution exponential(long mean, TimeUnit timeUnit) {
+    if (timeUnit == null) {
+      throw new IllegalArgumentException("timeUnit must not be null");
+    }
+    if (mean <= 0) {
+      throw new IllegalArgumentException("mean must be > 0");
+    }
+    final double meanNanos = timeUnit.toNanos(mean);
+    return random -> (long) (-meanNanos * Math.log(1D - random.nextDouble()));
+  }
+}
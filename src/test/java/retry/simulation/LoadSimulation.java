@@ -0,0 +1,72 @@
+package retry.simulation;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import retry.Retryer;
+
+/**
+ * 多个并发客户端通过真实的Retryer调用模拟下游，统计每种重试策略的表现
+ */
+public final class LoadSimulation {
+
+  private final int clients;
+  private final int callsPerClient;
+
+  public LoadSimulation(int clients, int callsPerClient) {
+    if (clients < 1) {
+      throw new IllegalArgumentException("clients must be > 0");
+    }
+    if (callsPerClient < 1) {
+      throw new IllegalArgumentException("callsPerClient must be > 0");
+    }
+    this.clients = clients;
+    this.callsPerClient = callsPerClient;
+  }
+
+  /**
+   * 运行一次模拟，运行前会重置下游的计数
+   */
+  public SimulationReport run(String policy, FlakyDependency dependency,
+      Retryer<String> retryer) throws InterruptedException {
+    final long[] latencies = new long[clients * callsPerClient];
+    final LongAdder successCalls = new LongAdder();
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final CountDownLatch doneLatch = new CountDownLatch(clients);
+    ExecutorService clientPool = Executors.newFixedThreadPool(clients);
+    try {
+      for (int i = 0; i < clients; i++) {
+        final int offset = i * callsPerClient;
+        clientPool.execute(() -> {
+          try {
+            startLatch.await();
+            for (int j = 0; j < callsPerClient; j++) {
+              long callStart = System.nanoTime();
+              try {
+                retryer.call(dependency::call);
+                successCalls.increment();
+              } catch (ExecutionException | RuntimeException e) {
+                // 逻辑调用失败，包括RetryException和兜底抛出的异常，不能让客户端线程退出
+              }
+              latencies[offset + j] = System.nanoTime() - callStart;
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          } finally {
+            doneLatch.countDown();
+          }
+        });
+      }
+      dependency.reset();
+      long startTime = System.nanoTime();
+      startLatch.countDown();
+      doneLatch.await();
+      long duration = System.nanoTime() - startTime;
+      return new SimulationReport(policy, successCalls.sum(), duration, latencies, dependency);
+    } finally {
+      clientPool.shutdownNow();
+    }
+  }
+}
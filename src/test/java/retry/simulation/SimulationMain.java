@@ -0,0 +1,59 @@
+package retry.simulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import retry.Retryer;
+import retry.RetryerBuilder;
+import retry.caller.FixedTimeAttemptCaller;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+import retry.strategy.WaitStrategies;
+import retry.strategy.WaitStrategy;
+
+/**
+ * 对比几种常见等待策略，可以按需修改下游参数和策略后离线运行，只在测试源码中，不随库发布
+ */
+public final class SimulationMain {
+
+  private SimulationMain() {
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    FlakyDependency dependency = FlakyDependency.newBuilder()
+        .latency(LatencyDistributions.exponential(2, TimeUnit.MILLISECONDS))
+        .errorRate(0.05D)
+        .capacity(32)
+        .outage(500, 300, TimeUnit.MILLISECONDS)
+        .build();
+    Map<String, WaitStrategy> policies = new LinkedHashMap<>();
+    policies.put("noWait", WaitStrategies.noWait());
+    policies.put("fixed(10ms)", WaitStrategies.fixedWait(10, TimeUnit.MILLISECONDS));
+    policies.put("random(0-20ms)", WaitStrategies.randomWait(
+        0, TimeUnit.MILLISECONDS, 20, TimeUnit.MILLISECONDS));
+    policies.put("exponential(100ms)", WaitStrategies.exponentialWait(
+        100, TimeUnit.MILLISECONDS));
+    policies.put("exponential+jitter", WaitStrategies.join(
+        WaitStrategies.exponentialWait(100, TimeUnit.MILLISECONDS),
+        WaitStrategies.randomWait(0, TimeUnit.MILLISECONDS, 10, TimeUnit.MILLISECONDS)));
+
+    LoadSimulation simulation = new LoadSimulation(64, 200);
+    ExecutorService executorService = Executors.newCachedThreadPool();
+    try {
+      for (Map.Entry<String, WaitStrategy> policy : policies.entrySet()) {
+        Retryer<String> retryer = RetryerBuilder.<String>newBuilder()
+            .caller(new FixedTimeAttemptCaller<>(executorService, 50, TimeUnit.MILLISECONDS))
+            .retryObservable(new RetryObservable())
+            .retryIfException()
+            .withStopStrategy(StopStrategies.stopAfterAttempt(5))
+            .withWaitStrategy(policy.getValue())
+            .build();
+        System.out.println(simulation.run(policy.getKey(), dependency, retryer));
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package retry.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次模拟的结果
+ */
+public final class SimulationReport {
+
+  private final String policy;
+  private final long logicalCalls;
+  private final long successCalls;
+  private final long duration;
+  private final long[] sortedLatencies;
+  private final long downstreamCalls;
+  private final int downstreamPeakConcurrency;
+
+  SimulationReport(String policy, long successCalls, long duration, long[] latencies,
+      FlakyDependency dependency) {
+    this.policy = policy;
+    this.logicalCalls = latencies.length;
+    this.successCalls = successCalls;
+    this.duration = duration;
+    this.sortedLatencies = latencies.clone();
+    Arrays.sort(this.sortedLatencies);
+    this.downstreamCalls = dependency.getCalls();
+    this.downstreamPeakConcurrency = dependency.getPeakConcurrency();
+  }
+
+  public String getPolicy() {
+    return policy;
+  }
+
+  public long getLogicalCalls() {
+    return logicalCalls;
+  }
+
+  public double getSuccessRate() {
+    return logicalCalls == 0 ? 0D : (double) successCalls / logicalCalls;
+  }
+
+  /**
+   * 每秒完成的逻辑调用数
+   */
+  public double getThroughput() {
+    return duration == 0 ? 0D : logicalCalls * (double) TimeUnit.SECONDS.toNanos(1) / duration;
+  }
+
+  /**
+   * 逻辑调用耗时的分位数(纳秒)
+   *
+   * @param quantile 0到1之间
+   */
+  public long getLatency(double quantile) {
+    if (quantile < 0D || quantile > 1D) {
+      throw new IllegalArgumentException("quantile must be between 0 and 1");
+    }
+    if (sortedLatencies.length == 0) {
+      return 0L;
+    }
+    int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+    return sortedLatencies[Math.max(index, 0)];
+  }
+
+  /**
+   * 放大系数，平均每次逻辑调用产生的下游调用次数
+   */
+  public double getAmplification() {
+    return logicalCalls == 0 ? 0D : (double) downstreamCalls / logicalCalls;
+  }
+
+  /**
+   * 下游每秒收到的调用数
+   */
+  public double getDownstreamLoad() {
+    return duration == 0 ? 0D
+        : downstreamCalls * (double) TimeUnit.SECONDS.toNanos(1) / duration;
+  }
+
+  public int getDownstreamPeakConcurrency() {
+    return downstreamPeakConcurrency;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%-24s success=%.4f throughput=%.1f/s p50=%.2fms p99=%.2fms "
+            + "p999=%.2fms amplification=%.2f downstream=%.1f/s peak=%d",
+        policy, getSuccessRate(), getThroughput(), millis(getLatency(0.5D)),
+        millis(getLatency(0.99D)), millis(getLatency(0.999D)), getAmplification(),
+        getDownstreamLoad(), downstreamPeakConcurrency);
+  }
+
+  private static double millis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -0,0 +1,37 @@
+package retry.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class LimitStrategiesTest {
+
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  public void aimdIncreasesWhenSaturatedAndBacksOffOnDrop() {
+    LimitStrategy strategy = LimitStrategies.aimd(10, 1, 100, 0.5D, 1, TimeUnit.SECONDS);
+    strategy.onSample(MILLIS, 10, false);
+    assertEquals(11, strategy.getLimit());
+    strategy.onSample(MILLIS, 1, false);
+    assertEquals(11, strategy.getLimit());
+    strategy.onSample(MILLIS, 10, true);
+    assertEquals(5, strategy.getLimit());
+  }
+
+  @Test
+  public void vegasFollowsRiseInBaselineLatency() {
+    LimitStrategy strategy = LimitStrategies.vegas(20, 1, 200);
+    for (int i = 0; i < 5000; i++) {
+      strategy.onSample(10 * MILLIS, strategy.getLimit(), false);
+    }
+    int limitBefore = strategy.getLimit();
+    for (int i = 0; i < 50000; i++) {
+      strategy.onSample(50 * MILLIS, strategy.getLimit(), false);
+    }
+    assertTrue("limit collapsed to " + strategy.getLimit(),
+        strategy.getLimit() >= limitBefore / 2);
+  }
+}
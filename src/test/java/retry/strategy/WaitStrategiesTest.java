@@ -0,0 +1,63 @@
+package retry.strategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import retry.attempt.ExceptionAttempt;
+import retry.attempt.ResultAttempt;
+
+public class WaitStrategiesTest {
+
+  @Test
+  public void recoveryTimeWaitFollowsRisingAndFallingRecoveryTime() {
+    WaitStrategy strategy = WaitStrategies.recoveryTimeWait(1, 10_000, TimeUnit.MILLISECONDS);
+    for (int i = 0; i < 50; i++) {
+      retryUntilRecovered(strategy, 250L);
+    }
+    long slowFirstWait = firstWait(strategy);
+    assertTrue("first wait " + slowFirstWait, slowFirstWait >= 150L && slowFirstWait <= 300L);
+
+    for (int i = 0; i < 50; i++) {
+      retryUntilRecovered(strategy, 1L);
+    }
+    long fastFirstWait = firstWait(strategy);
+    assertTrue("first wait " + fastFirstWait, fastFirstWait <= 2L);
+  }
+
+  @Test
+  public void recoveryTimeWaitIsStateful() {
+    WaitStrategy recovery = WaitStrategies.recoveryTimeWait(1, 100, TimeUnit.MILLISECONDS);
+    assertTrue(recovery.isStateful());
+    assertTrue(WaitStrategies.join(WaitStrategies.noWait(), recovery).isStateful());
+    assertFalse(WaitStrategies.fixedWait(10, TimeUnit.MILLISECONDS).isStateful());
+  }
+
+  @Test
+  public void recoveryTimeWaitStartsAtMinimum() {
+    WaitStrategy strategy = WaitStrategies.recoveryTimeWait(5, 100, TimeUnit.MILLISECONDS);
+    assertEquals(5L, firstWait(strategy));
+  }
+
+  private static long firstWait(WaitStrategy strategy) {
+    return strategy.computeSleepTime(new ExceptionAttempt<>(new IllegalStateException(), 1L, 0L));
+  }
+
+  /**
+   * 模拟一次调用：下游在recoveryMillis之后恢复，调用本身不耗时
+   */
+  private static void retryUntilRecovered(WaitStrategy strategy, long recoveryMillis) {
+    long elapsed = 0L;
+    long attemptTimes = 1L;
+    while (elapsed < recoveryMillis) {
+      elapsed += strategy.computeSleepTime(
+          new ExceptionAttempt<>(new IllegalStateException(), attemptTimes, elapsed));
+      attemptTimes++;
+    }
+    if (attemptTimes > 1L) {
+      strategy.onComplete(new ResultAttempt<>("ok", attemptTimes, elapsed));
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package retry.subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import retry.Retryer;
+import retry.RetryerBuilder;
+import retry.caller.NoTimeLimitedAttemptCaller;
+import retry.exception.RetryException;
+import retry.publish.RetryObservable;
+import retry.strategy.StopStrategies;
+
+public class FlightRecorderTest {
+
+  private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void recordsRetryerIdFromNotification() throws Exception {
+    RetryObservable observable = new RetryObservable();
+    FlightRecorder recorder = new FlightRecorder(64);
+    observable.addRetrySubscribe(recorder);
+    Retryer<String> first = failingRetryer(observable, 2);
+    Retryer<String> second = failingRetryer(observable, 3);
+    callIgnoringRetryException(first);
+    callIgnoringRetryException(second);
+
+    Map<Integer, Integer> attemptsById = readAttemptsById(recorder);
+    assertEquals(2, attemptsById.size());
+    assertEquals(Integer.valueOf(2), attemptsById.get(first.getId()));
+    assertEquals(Integer.valueOf(3), attemptsById.get(second.getId()));
+  }
+
+  @Test
+  public void dumpsInExecutorInsteadOfCallingThread() throws Exception {
+    Path dumpPath = Files.createTempFile("flight", ".bin");
+    Files.delete(dumpPath);
+    List<Runnable> tasks = new ArrayList<>();
+    RetryObservable observable = new RetryObservable();
+    FlightRecorder recorder = new FlightRecorder(64, dumpPath, 1, TimeUnit.HOURS, tasks::add);
+    observable.addRetrySubscribe(recorder);
+    try {
+      callIgnoringRetryException(failingRetryer(observable, 2));
+      assertEquals(1, tasks.size());
+      assertFalse(Files.exists(dumpPath));
+      tasks.get(0).run();
+      assertTrue(Files.exists(dumpPath));
+      callIgnoringRetryException(failingRetryer(observable, 2));
+      assertEquals("dump is throttled by minInterval", 1, tasks.size());
+    } finally {
+      Files.deleteIfExists(dumpPath);
+    }
+  }
+
+  private Retryer<String> failingRetryer(RetryObservable observable, int attempts) {
+    return RetryerBuilder.<String>newBuilder()
+        .caller(new NoTimeLimitedAttemptCaller<>(executorService))
+        .retryObservable(observable)
+        .retryIfException()
+        .withStopStrategy(StopStrategies.stopAfterAttempt(attempts))
+        .build();
+  }
+
+  private static void callIgnoringRetryException(Retryer<String> retryer) throws Exception {
+    try {
+      retryer.call(() -> {
+        throw new IllegalStateException("down");
+      });
+      fail("expected RetryException");
+    } catch (RetryException expected) {
+      // 重试次数用完
+    }
+  }
+
+  private static Map<Integer, Integer> readAttemptsById(FlightRecorder recorder)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    recorder.dump(out);
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(FlightRecorder.MAGIC, in.readInt());
+    assertEquals(FlightRecorder.VERSION, in.readInt());
+    assertEquals(FlightRecorder.RECORD_SIZE, in.readInt());
+    int count = in.readInt();
+    Map<Integer, Integer> attemptsById = new HashMap<>();
+    byte[] record = new byte[FlightRecorder.RECORD_SIZE];
+    for (int i = 0; i < count; i++) {
+      in.readFully(record);
+      int retryerId = ByteBuffer.wrap(record).getInt(8);
+      attemptsById.merge(retryerId, 1, Integer::sum);
+    }
+    return attemptsById;
+  }
+}